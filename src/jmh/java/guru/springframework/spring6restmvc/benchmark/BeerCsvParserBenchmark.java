@@ -0,0 +1,76 @@
+package guru.springframework.spring6restmvc.benchmark;
+
+import guru.springframework.spring6restmvc.model.BeerCSVRecord;
+import guru.springframework.spring6restmvc.model.BeerCsvRow;
+import guru.springframework.spring6restmvc.services.BeerCsvService;
+import guru.springframework.spring6restmvc.services.BeerCsvServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * opencsv bean binding (convertCSV) naspram memory-mapped paralelnog parsera (convertCSVParallel) nad istim podacima.
+ * Ulaz je beers.csv ponovljen "copies" puta, pa je broj redaka po operaciji 2410 * copies
+ * (rows/s = ops/s * 2410 * copies).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerCsvParserBenchmark {
+
+    @Param({"1", "100"})
+    int copies;
+
+    private final BeerCsvService beerCsvService = new BeerCsvServiceImpl();
+
+    private Path csvFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        List<String> lines;
+
+        try (InputStream inputStream = BeerCsvParserBenchmark.class.getResourceAsStream("/csvdata/beers.csv")) {
+            lines = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+
+        csvFile = Files.createTempFile("beers-benchmark-", ".csv");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8)) {
+            writer.write(lines.get(0));
+            writer.newLine();
+
+            for (int copy = 0; copy < copies; copy++) {
+                for (int i = 1; i < lines.size(); i++) {
+                    writer.write(lines.get(i));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public List<BeerCSVRecord> opencsv() {
+        return beerCsvService.convertCSV(csvFile.toFile());
+    }
+
+    @Benchmark
+    public List<BeerCsvRow> parallel() {
+        return beerCsvService.convertCSVParallel(csvFile);
+    }
+}
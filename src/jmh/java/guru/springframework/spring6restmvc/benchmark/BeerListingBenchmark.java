@@ -0,0 +1,70 @@
+package guru.springframework.spring6restmvc.benchmark;
+
+import guru.springframework.spring6restmvc.Spring6RestMvcApplication;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.services.BeerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BeerService.listBeers (BeerServiceJPA) nad H2 bazom koju puni BootstrapData (2413 piva) - upit, mapiranje
+ * i COUNT. countCacheTtl=PT0S isključuje BeerCountCache, pa se vidi i trošak COUNT upita.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerListingBenchmark {
+
+    @Param({"PT30S", "PT0S"})
+    String countCacheTtl;
+
+    private ConfigurableApplicationContext context;
+    private BeerService beerService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        context = new SpringApplicationBuilder(Spring6RestMvcApplication.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn",
+                        "logging.level.guru.springframework=warn",
+                        "app.beer.count-cache.ttl=" + countCacheTtl)
+                .run();
+
+        beerService = context.getBean(BeerService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BeerDTO> listAll() {
+        return beerService.listBeers(null, null, false, 1, 25);
+    }
+
+    @Benchmark
+    public Page<BeerDTO> listByName() {
+        return beerService.listBeers("IPA", null, false, 1, 25);
+    }
+
+    @Benchmark
+    public Page<BeerDTO> listByStyle() {
+        return beerService.listBeers(null, BeerStyle.IPA, false, 1, 25);
+    }
+
+    @Benchmark
+    public Page<BeerDTO> listByNameAndStyle() {
+        return beerService.listBeers("IPA", BeerStyle.IPA, true, 1, 25);
+    }
+}
@@ -0,0 +1,66 @@
+package guru.springframework.spring6restmvc.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serijalizacija Page<BeerDTO> - odgovor na GET /api/v1/beer. ObjectMapper je složen istim builderom
+ * kao i u Spring Boot-u (JavaTimeModule, datumi kao ISO string).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeerPageSerializationBenchmark {
+
+    @Param({"25", "1000"})
+    int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<BeerDTO> page;
+
+    @Setup
+    public void setUp() {
+
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<BeerDTO> beers = new ArrayList<>(pageSize);
+
+        for (int i = 0; i < pageSize; i++) {
+            beers.add(BeerDTO.builder()
+                    .id(UUID.randomUUID())
+                    .version(1)
+                    .beerName("Beer " + i)
+                    .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                    .upc(String.valueOf(100000 + i))
+                    .price(new BigDecimal("12.99"))
+                    .quantityOnHand(i)
+                    .createdDate(LocalDateTime.now())
+                    .updateDate(LocalDateTime.now())
+                    .build());
+        }
+
+        page = new PageImpl<>(beers, PageRequest.of(0, pageSize), 2413);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
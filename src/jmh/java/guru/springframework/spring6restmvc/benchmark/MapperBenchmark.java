@@ -0,0 +1,84 @@
+package guru.springframework.spring6restmvc.benchmark;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.entities.Customer;
+import guru.springframework.spring6restmvc.mappers.BeerMapper;
+import guru.springframework.spring6restmvc.mappers.CustomerMapper;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.model.CustomerDTO;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct mapiranje entitet <-> DTO, koje se izvršava za svaki zapis u listanju i za svaki upis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final BeerMapper beerMapper = Mappers.getMapper(BeerMapper.class);
+    private final CustomerMapper customerMapper = Mappers.getMapper(CustomerMapper.class);
+
+    private Beer beer;
+    private BeerDTO beerDTO;
+    private Customer customer;
+    private CustomerDTO customerDTO;
+
+    @Setup
+    public void setUp() {
+
+        beer = Beer.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .beerName("Galaxy Cat")
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("12356")
+                .price(new BigDecimal("12.99"))
+                .quantityOnHand(122)
+                .createdDate(LocalDateTime.now())
+                .updateDate(LocalDateTime.now())
+                .build();
+
+        beerDTO = beerMapper.beerToBeerDto(beer);
+
+        customer = Customer.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .name("Customer 1")
+                .createdDate(LocalDateTime.now())
+                .updateDate(LocalDateTime.now())
+                .build();
+
+        customerDTO = customerMapper.customerToCustomerDto(customer);
+    }
+
+    @Benchmark
+    public BeerDTO beerToBeerDto() {
+        return beerMapper.beerToBeerDto(beer);
+    }
+
+    @Benchmark
+    public Beer beerDtoToBeer() {
+        return beerMapper.beerDtoToBeer(beerDTO);
+    }
+
+    @Benchmark
+    public CustomerDTO customerToCustomerDto() {
+        return customerMapper.customerToCustomerDto(customer);
+    }
+
+    @Benchmark
+    public Customer customerDtoToCustomer() {
+        return customerMapper.customerDtoToCustomer(customerDTO);
+    }
+}
@@ -0,0 +1,95 @@
+package guru.springframework.spring6restmvc.benchmark;
+
+import guru.springframework.spring6restmvc.Spring6RestMvcApplication;
+import guru.springframework.spring6restmvc.mappers.BeerMapper;
+import guru.springframework.spring6restmvc.mappers.CustomerMapper;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.CustomerDTO;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvc.repositories.CustomerRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Isti upiti kao u BeerServiceJPA/CustomerServiceJPA (stranica entiteta + mapiranje, findById, svi customeri),
+ * jednom u read-write, a jednom u read-only transakciji. U read-only varijanti Hibernate ne radi snapshot
+ * učitanih entiteta niti dirty checking pri commit-u, što se vidi u gc.alloc.rate.norm (B/op) iz -prof gc.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.includes=ReadOnlyTransactionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlyTransactionBenchmark {
+
+    @Param({"true", "false"})
+    boolean readOnly;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private BeerRepository beerRepository;
+    private CustomerRepository customerRepository;
+    private BeerMapper beerMapper;
+    private CustomerMapper customerMapper;
+    private UUID beerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        context = new SpringApplicationBuilder(Spring6RestMvcApplication.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn",
+                        "logging.level.guru.springframework=warn")
+                .run();
+
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(readOnly);
+
+        beerRepository = context.getBean(BeerRepository.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+        beerMapper = context.getBean(BeerMapper.class);
+        customerMapper = context.getBean(CustomerMapper.class);
+
+        beerId = beerRepository.findAll(PageRequest.of(0, 1)).getContent().get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BeerDTO> listBeerPage() {
+        return transactionTemplate.execute(status -> beerRepository
+                .findAll(PageRequest.of(0, 100, Sort.by("beerName")))
+                .map(beerMapper::beerToBeerDTO)
+                .getContent());
+    }
+
+    @Benchmark
+    public BeerDTO getBeerById() {
+        return transactionTemplate.execute(status -> beerRepository.findById(beerId)
+                .map(beerMapper::beerToBeerDTO)
+                .orElse(null));
+    }
+
+    @Benchmark
+    public List<CustomerDTO> getAllCustomers() {
+        return transactionTemplate.execute(status -> customerRepository.findAll().stream()
+                .map(customerMapper::customerToCustomerDto)
+                .toList());
+    }
+}
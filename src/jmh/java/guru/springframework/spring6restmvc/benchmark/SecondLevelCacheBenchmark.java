@@ -0,0 +1,115 @@
+package guru.springframework.spring6restmvc.benchmark;
+
+import guru.springframework.spring6restmvc.Spring6RestMvcApplication;
+import guru.springframework.spring6restmvc.mappers.BeerMapper;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * findById za "vruća" piva (HOT_BEERS najprodavanijih) sa i bez Hibernate second-level cache-a. Ide direktno na
+ * repozitorij, mimo DTO keša iz CacheConfig, pa se vidi samo razlika u odlasku u bazu. Na kraju se ispiše
+ * broj JDBC naredbi po operaciji iz Hibernate statistike - s uključenim kešom je nakon zagrijavanja 0.
+ * <p>
+ * readsPerAllocation > 0 ubaci jednu alokaciju zalihe (bulk UPDATE kao kod narudžbe, s količinom 0 da se stanje ne
+ * mijenja) na svakih toliko čitanja. Bulk UPDATE izbaci cijelu "beer" regiju, pa se vidi koliko L2 pogodaka ostaje
+ * uz promet narudžbi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecondLevelCacheBenchmark {
+
+    static final int HOT_BEERS = 100;
+
+    @Param({"true", "false"})
+    boolean secondLevelCache;
+
+    @Param({"0", "100"})
+    int readsPerAllocation;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate writeTransactionTemplate;
+    private BeerRepository beerRepository;
+    private BeerMapper beerMapper;
+    private Statistics statistics;
+    private List<UUID> hotBeerIds;
+    private final AtomicLong reads = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        context = new SpringApplicationBuilder(Spring6RestMvcApplication.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn",
+                        "logging.level.guru.springframework=warn",
+                        "spring.jpa.properties.hibernate.show_sql=false",
+                        "app.jpa.second-level-cache.enabled=" + secondLevelCache)
+                .run();
+
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        writeTransactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        beerRepository = context.getBean(BeerRepository.class);
+        beerMapper = context.getBean(BeerMapper.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        hotBeerIds = beerRepository.findAll(PageRequest.of(0, HOT_BEERS)).map(beer -> beer.getId()).getContent();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        statistics.clear();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStatementsPerOperation() {
+
+        long loads = statistics.getEntityLoadCount() + statistics.getSecondLevelCacheHitCount();
+
+        System.out.printf("%n  JDBC statements: %d, L2 hits: %d, L2 misses: %d, statements/op: %.3f%n",
+                statistics.getPrepareStatementCount(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                loads == 0 ? 0.0 : (double) statistics.getPrepareStatementCount() / loads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BeerDTO findHotBeer() {
+
+        UUID beerId = hotBeerIds.get(ThreadLocalRandom.current().nextInt(hotBeerIds.size()));
+
+        if (readsPerAllocation > 0 && reads.incrementAndGet() % readsPerAllocation == 0) {
+            writeTransactionTemplate.executeWithoutResult(status -> beerRepository.allocateInventory(beerId, 0));
+        }
+
+        return transactionTemplate.execute(status -> beerRepository.findById(beerId)
+                .map(beerMapper::beerToBeerDTO)
+                .orElse(null));
+    }
+}
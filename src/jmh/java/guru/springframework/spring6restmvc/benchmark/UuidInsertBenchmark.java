@@ -0,0 +1,108 @@
+package guru.springframework.spring6restmvc.benchmark;
+
+import guru.springframework.spring6restmvc.Spring6RestMvcApplication;
+import guru.springframework.spring6restmvc.entities.TimeOrderedUuidGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput ovisno o tipu primarnog ključa. insertRows u svakoj operaciji batch-insertira ROWS_PER_OPERATION
+ * redaka u pomoćnu tablicu, a tablica kroz iteracije raste - kod random ključeva sve više stranica indeksa
+ * treba čitati i cijepati, kod vremenski poredanih inserti idu na kraj indeksa. VARCHAR_RANDOM je stari format
+ * (UUIDGenerator + varchar(36)), BINARY_TIME_ORDERED novi (TimeOrderedUuidGenerator + binary(16)).
+ * <p>
+ * Default je H2 iz aplikacije; stvarnu razliku pokazuje InnoDB: -p profiles=localmysql.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+    static final int ROWS_PER_OPERATION = 1000;
+
+    public enum KeyType {
+        VARCHAR_RANDOM, BINARY_RANDOM, BINARY_TIME_ORDERED
+    }
+
+    @Param({"VARCHAR_RANDOM", "BINARY_RANDOM", "BINARY_TIME_ORDERED"})
+    KeyType keyType;
+
+    @Param({""})
+    String profiles;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        context = new SpringApplicationBuilder(Spring6RestMvcApplication.class)
+                .profiles(profiles.isEmpty() ? new String[0] : profiles.split(","))
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn",
+                        "logging.level.guru.springframework=warn",
+                        "spring.jpa.properties.hibernate.show_sql=false",
+                        "logging.level.org.hibernate.orm.jdbc.bind=warn")
+                .run();
+
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        String idType = keyType == KeyType.VARCHAR_RANDOM ? "varchar(36)" : "binary(16)";
+
+        jdbcTemplate.execute("drop table if exists uuid_insert_benchmark");
+        jdbcTemplate.execute("create table uuid_insert_benchmark (id " + idType + " not null primary key, " +
+                "name varchar(50), created_date timestamp)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.execute("drop table if exists uuid_insert_benchmark");
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_OPERATION)
+    public int[] insertRows() {
+
+        List<Object[]> rows = new ArrayList<>(ROWS_PER_OPERATION);
+
+        for (int i = 0; i < ROWS_PER_OPERATION; i++) {
+            rows.add(new Object[]{id(), "Benchmark " + i, new java.sql.Timestamp(System.currentTimeMillis())});
+        }
+
+        return transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(
+                "insert into uuid_insert_benchmark (id, name, created_date) values (?, ?, ?)", rows));
+    }
+
+    private Object id() {
+
+        return switch (keyType) {
+            case VARCHAR_RANDOM -> UUID.randomUUID().toString();
+            case BINARY_RANDOM -> toBytes(UUID.randomUUID());
+            case BINARY_TIME_ORDERED -> toBytes(TimeOrderedUuidGenerator.next());
+        };
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
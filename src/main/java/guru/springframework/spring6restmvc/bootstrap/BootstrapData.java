@@ -2,6 +2,7 @@ package guru.springframework.spring6restmvc.bootstrap;
 
 import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvc.entities.Customer;
+import guru.springframework.spring6restmvc.mappers.BeerCsvRecordConverter;
 import guru.springframework.spring6restmvc.model.BeerCSVRecord;
 import guru.springframework.spring6restmvc.model.BeerDTO;
 import guru.springframework.spring6restmvc.model.BeerStyle;
@@ -9,25 +10,30 @@ import guru.springframework.spring6restmvc.model.CustomerDTO;
 import guru.springframework.spring6restmvc.repositories.BeerRepository;
 import guru.springframework.spring6restmvc.repositories.CustomerRepository;
 import guru.springframework.spring6restmvc.services.BeerCsvService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.StringUtils;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.ResourceUtils;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class BootstrapData implements CommandLineRunner {
 
+    // koliko redaka iz CSV-a ide u jedan saveAll + flush/clear
+    private static final int CSV_BATCH_SIZE = 500;
+
     private final BeerRepository beerRepository;
     private final CustomerRepository customerRepository;
 
@@ -37,6 +43,10 @@ public class BootstrapData implements CommandLineRunner {
     PAZI: da bi BootStrapaData vidio beerCsvService ovaj mora u svom file-u biti označen sa @Service anotacijom */
     private final BeerCsvService beerCsvService;
 
+    private final BeerCsvRecordConverter beerCsvRecordConverter;
+
+    private final EntityManager entityManager;
+
 
     @Transactional
     @Override
@@ -47,39 +57,63 @@ public class BootstrapData implements CommandLineRunner {
         
     }
 
-    private void loadCvsData() throws FileNotFoundException {
+    private void loadCvsData() throws IOException {
         if (beerRepository.count() < 10) {
 
-            int max=12,min=6;
-
-            File file = ResourceUtils.getFile("classpath:csvdata/beers.csv");
-
-            List<BeerCSVRecord> recs  = beerCsvService.convertCSV(file);
-
-            recs.forEach(beerCSVRecord -> {
-                BeerStyle beerStyle = switch (beerCSVRecord.getStyle()) {
-                    case "American Pale Lager" -> BeerStyle.LAGER;
-                    case "American Pale Ale (APA)", "American Black Ale", "Belgian Dark Ale", "American Blonde Ale" ->
-                            BeerStyle.ALE;
-                    case "American IPA", "American Double / Imperial IPA", "Belgian IPA" -> BeerStyle.IPA;
-                    case "American Porter" -> BeerStyle.PORTER;
-                    case "Oatmeal Stout", "American Stout" -> BeerStyle.STOUT;
-                    case "Saison / Farmhouse Ale" -> BeerStyle.SAISON;
-                    case "Fruit / Vegetable Beer", "Winter Warmer", "Berliner Weissbier" -> BeerStyle.WHEAT;
-                    case "English Pale Ale" -> BeerStyle.PALE_ALE;
-                    default -> BeerStyle.PILSNER;
-                };
-
-                beerRepository.save(Beer.builder()
-                        .beerName(StringUtils.abbreviate(beerCSVRecord.getBeer(), 50))
-                        .beerStyle(beerStyle)
-                        // .price(BigDecimal.TEN)
-                                .price(new BigDecimal(min + (float)(Math.random() * ((max - min) + 0.1))))
-                        .upc(beerCSVRecord.getRow().toString())
-                        .quantityOnHand(beerCSVRecord.getCount())
-                        .build());
-            });
+            // CSV se čita kao stream (redak po redak) preko InputStream-a, pa radi i kad je aplikacija zapakirana u jar,
+            // a u memoriji je u svakom trenutku samo jedan komad od CSV_BATCH_SIZE zapisa
+            InputStream csvInputStream = new ClassPathResource("csvdata/beers.csv").getInputStream();
+
+            long rows = 0;
+            long parseNanos = 0;
+            long mapNanos = 0;
+            long insertNanos = 0;
+
+            try (Stream<BeerCSVRecord> records = beerCsvService.streamCSV(csvInputStream)) {
+
+                Iterator<BeerCSVRecord> iterator = records.iterator();
+
+                // umjesto jednog save() po retku unutar jedne velike transakcije, piva snimamo u komadima od CSV_BATCH_SIZE:
+                // Hibernate ih šalje kao JDBC batch (hibernate.jdbc.batch_size), a flush/clear nakon svakog komada
+                // drži persistence context malim bez obzira na veličinu CSV-a
+                while (iterator.hasNext()) {
+
+                    long parseStart = System.nanoTime();
+
+                    List<BeerCSVRecord> chunk = new ArrayList<>(CSV_BATCH_SIZE);
+
+                    while (iterator.hasNext() && chunk.size() < CSV_BATCH_SIZE) {
+                        chunk.add(iterator.next());
+                    }
+
+                    long mapStart = System.nanoTime();
+                    parseNanos += mapStart - parseStart;
+
+                    List<Beer> beers = chunk.stream()
+                            .map(beerCsvRecordConverter::convert)
+                            .toList();
+
+                    long insertStart = System.nanoTime();
+                    mapNanos += insertStart - mapStart;
+
+                    beerRepository.saveAll(beers);
+                    entityManager.flush();
+                    entityManager.clear();
+
+                    insertNanos += System.nanoTime() - insertStart;
+                    rows += chunk.size();
+                }
+            }
+
+            long totalNanos = parseNanos + mapNanos + insertNanos;
 
+            log.info("Loaded {} beers from CSV in {} ms (parse {} ms, map {} ms, insert {} ms, {} rows/s)",
+                    rows,
+                    TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                    TimeUnit.NANOSECONDS.toMillis(parseNanos),
+                    TimeUnit.NANOSECONDS.toMillis(mapNanos),
+                    TimeUnit.NANOSECONDS.toMillis(insertNanos),
+                    totalNanos == 0 ? 0 : rows * TimeUnit.SECONDS.toNanos(1) / totalNanos);
         }
     }
 
@@ -140,7 +174,7 @@ public class BootstrapData implements CommandLineRunner {
             Customer customer1 = Customer.builder()
                     // .id(UUID.randomUUID())
                     .name("Customer 1")
-                    .version(1)
+                    // .version(1) // Customer.version je JPA @Version, puni ga Hibernate
                     .createdDate(LocalDateTime.now())
                     .updateDate(LocalDateTime.now())
                     .build();
@@ -148,7 +182,7 @@ public class BootstrapData implements CommandLineRunner {
             Customer customer2 = Customer.builder()
                     // .id(UUID.randomUUID())
                     .name("Customer 2")
-                    .version(1)
+                    // .version(1) // Customer.version je JPA @Version, puni ga Hibernate
                     .createdDate(LocalDateTime.now())
                     .updateDate(LocalDateTime.now())
                     .build();
@@ -156,7 +190,7 @@ public class BootstrapData implements CommandLineRunner {
             Customer customer3 = Customer.builder()
                     // .id(UUID.randomUUID())
                     .name("Customer 3")
-                    .version(1)
+                    // .version(1) // Customer.version je JPA @Version, puni ga Hibernate
                     .createdDate(LocalDateTime.now())
                     .updateDate(LocalDateTime.now())
                     .build();
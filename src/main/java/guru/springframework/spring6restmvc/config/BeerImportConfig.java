@@ -0,0 +1,30 @@
+package guru.springframework.spring6restmvc.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Zaseban executor za CSV importe, da dugotrajni import ne zauzima Tomcat request thread-ove.
+ * Mali pool i ograničen red: importi su ograničeni bazom, a više paralelnih samo bi se natjecalo za iste konekcije.
+ */
+@Configuration
+public class BeerImportConfig {
+
+    public static final String BEER_IMPORT_EXECUTOR = "beerImportExecutor";
+
+    @Bean(name = BEER_IMPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor beerImportExecutor(@Value("${app.beer.import.concurrency:1}") int concurrency,
+                                                     @Value("${app.beer.import.queue-capacity:10}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);   // kad je red pun, execute() baca TaskRejectedException
+        executor.setThreadNamePrefix("beer-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+
+        return executor;
+    }
+}
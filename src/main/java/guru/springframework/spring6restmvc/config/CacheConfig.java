@@ -0,0 +1,41 @@
+package guru.springframework.spring6restmvc.config;
+
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-through keš za getBeerById / getCustomerById. Ključ je UUID, vrijednost već mapirani DTO,
+ * pa pogodak u kešu preskače i bazu i MapStruct mapper. Svaki pozivatelj dobiva svoju kopiju DTO-a (vidi {@link CopyingCaffeineCache}).
+ */
+@EnableCaching
+@Configuration
+public class CacheConfig {
+
+    public static final String BEER_CACHE = "beerCache";
+    public static final String CUSTOMER_CACHE = "customerCache";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${spring.cache.caffeine.spec}") String caffeineSpec) {
+
+        // imena keševa su fiksna, tako da ih Actuator zna registrirati za metrike (cache.gets hit/miss, cache.evictions...)
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(BEER_CACHE, CUSTOMER_CACHE) {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new CopyingCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        caffeineCacheManager.setCaffeineSpec(CaffeineSpec.parse(caffeineSpec));
+        caffeineCacheManager.setAllowNullValues(false);
+
+        // put/evict iz update/patch/delete metoda se primjenjuju tek nakon commit-a transakcije,
+        // tako da rollback ne ostavi u kešu vrijednost koja nikad nije završila u bazi
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
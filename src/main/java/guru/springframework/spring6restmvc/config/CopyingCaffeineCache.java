@@ -0,0 +1,40 @@
+package guru.springframework.spring6restmvc.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.CustomerDTO;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Caffeine keš koji DTO kopira i kod spremanja i kod čitanja. DTO-i su mutable (@Data), pa bi bez kopije
+ * svaki pozivatelj dobio istu instancu iz keša i njegove izmjene (npr. setQuantityOnHand(null)) bi vidjeli svi ostali.
+ */
+class CopyingCaffeineCache extends CaffeineCache {
+
+    CopyingCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        return super.toStoreValue(copy(userValue));
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return copy(super.fromStoreValue(storeValue));
+    }
+
+    private static Object copy(Object value) {
+
+        if (value instanceof BeerDTO beerDTO) {
+            return beerDTO.toBuilder().build();
+        }
+
+        if (value instanceof CustomerDTO customerDTO) {
+            return customerDTO.toBuilder().build();
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,83 @@
+package guru.springframework.spring6restmvc.config;
+
+import guru.springframework.spring6restmvc.controller.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ograničava broj istovremenih poziva BeerService/CustomerService/BeerOrderService metoda (a time i transakcija/konekcija) na
+ * app.db.concurrency-limiter.max-concurrent. S virtual thread-ovima tisuće sporih klijenata inače sve istovremeno
+ * čekaju na HikariCP konekciju (i pri tome, zbog synchronized u JDBC driveru, blokiraju carrier thread-ove);
+ * ovako višak čeka na semaforu, a nakon acquire-timeout dobije 503 umjesto timeout-a iz pool-a.
+ * <p>
+ * Aspekt je ispred @Transactional (HIGHEST_PRECEDENCE), pa se dozvola uzima prije nego transakcija zatraži konekciju.
+ * Ugniježđeni pozivi servisa na istom thread-u ne uzimaju novu dozvolu.
+ * <p>
+ * BeerService.streamBeers drži dozvolu dok se ne pošalje cijeli odgovor - namjerno, jer za to vrijeme drži i
+ * otvoren kursor, tj. konekciju. Spori klijenti na /stream zato troše dozvole kao i dugi upiti. Kako se stream piše
+ * tek nakon što je status već poslan, timeout na semaforu tu ne može postati 503, nego prekida odgovor.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.db.concurrency-limiter.enabled", havingValue = "true")
+public class DbConcurrencyLimiter {
+
+    private static final ThreadLocal<Boolean> HOLDS_PERMIT = new ThreadLocal<>();
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    public DbConcurrencyLimiter(@Value("${app.db.concurrency-limiter.max-concurrent:10}") int maxConcurrent,
+                                @Value("${app.db.concurrency-limiter.acquire-timeout:PT5S}") Duration acquireTimeout,
+                                MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeout = acquireTimeout;
+
+        Gauge.builder("app.db.limiter.available", permits, Semaphore::availablePermits)
+                .description("Free DB concurrency permits")
+                .register(meterRegistry);
+        Gauge.builder("app.db.limiter.waiting", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a DB concurrency permit")
+                .register(meterRegistry);
+
+        log.info("DB concurrency limited to {} concurrent service calls", maxConcurrent);
+    }
+
+    @Around("execution(* guru.springframework.spring6restmvc.services.BeerService.*(..)) " +
+            "|| execution(* guru.springframework.spring6restmvc.services.CustomerService.*(..)) " +
+            "|| execution(* guru.springframework.spring6restmvc.services.BeerOrderService.*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        if (Boolean.TRUE.equals(HOLDS_PERMIT.get())) {
+            return joinPoint.proceed();
+        }
+
+        if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new ServiceUnavailableException("Database is busy, try again later");
+        }
+
+        HOLDS_PERMIT.set(Boolean.TRUE);
+
+        try {
+            return joinPoint.proceed();
+        } finally {
+            HOLDS_PERMIT.remove();
+            permits.release();
+        }
+    }
+}
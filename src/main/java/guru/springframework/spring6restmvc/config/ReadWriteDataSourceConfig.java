@@ -0,0 +1,85 @@
+package guru.springframework.spring6restmvc.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Primary + replica DataSource, uključuje se s app.datasource.replica.url. Svaki ima svoj HikariCP pool
+ * (spring.datasource.hikari.* i app.datasource.replica.hikari.*), a aplikacija (JPA, Flyway) vidi samo
+ * routing DataSource - vidi ReadWriteRoutingDataSource. Bez replica url-a Spring Boot radi svoj jedan pool kao i prije.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = ReadWriteDataSourceConfig.REPLICA_URL_PROPERTY)
+public class ReadWriteDataSourceConfig {
+
+    public static final String REPLICA_URL_PROPERTY = "app.datasource.replica.url";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // korisnik i lozinka za repliku su default isti kao za primary
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${" + REPLICA_URL_PROPERTY + "}") String url,
+                                              @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${app.datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                               @Value("${app.datasource.replica.max-lag:PT5S}") Duration maxLag,
+                                               @Value("${app.datasource.replica.check-interval:PT1S}") Duration checkInterval) {
+        return new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLag, checkInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+
+        log.info("Read-only transactions are routed to the replica DataSource");
+
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor::isReplicaAvailable));
+    }
+
+    @Bean
+    public MeterBinder replicaLagMetrics(ReplicaLagMonitor replicaLagMonitor) {
+        return meterRegistry -> {
+            Gauge.builder("app.datasource.replica.available", replicaLagMonitor, monitor -> monitor.isReplicaAvailable() ? 1 : 0)
+                    .description("Whether read-only transactions are routed to the replica")
+                    .register(meterRegistry);
+            Gauge.builder("app.datasource.replica.lag", replicaLagMonitor, ReplicaLagMonitor::getLagSeconds)
+                    .description("Last measured replica lag in seconds, -1 if unknown")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package guru.springframework.spring6restmvc.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Read-only transakcije (@Transactional(readOnly = true)) dobivaju konekciju iz replica pool-a, a sve ostalo (pisanje,
+ * pozivi izvan transakcije) iz primary pool-a. Ako replika nije dostupna ili previše zaostaje (replicaAvailable),
+ * i read-only transakcije idu na primary.
+ * <p>
+ * Mora biti omotan u LazyConnectionDataSourceProxy: transaction manager konekciju traži već u doBegin, prije nego
+ * TransactionSynchronizationManager zna da je transakcija read-only, a lazy proxy pravu konekciju uzme tek kod prve naredbe.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final BooleanSupplier replicaAvailable;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, BooleanSupplier replicaAvailable) {
+        this.replicaAvailable = replicaAvailable;
+
+        setTargetDataSources(Map.<Object, Object>of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaAvailable.getAsBoolean()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+}
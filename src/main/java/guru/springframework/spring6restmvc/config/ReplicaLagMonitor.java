@@ -0,0 +1,126 @@
+package guru.springframework.spring6restmvc.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Svakih check-interval na replici izvrši lag-query i zapamti je li replika upotrebljiva - odgovara i zaostaje
+ * najviše max-lag. ReadWriteRoutingDataSource to samo pročita, pa provjera nikad nije na putu request-a.
+ * <p>
+ * Za MySQL je lag-query "SHOW REPLICA STATUS" i čita se stupac Seconds_Behind_Source (ili Seconds_Behind_Master kod
+ * starijih verzija); inače se uzima prvi stupac kao broj sekundi. Prazan rezultat (server nije replika) ili NULL
+ * (replikacija stoji) znače da replika nije upotrebljiva.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final String[] LAG_COLUMNS = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean replicaAvailable;
+    private volatile long lagSeconds = -1;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, Duration maxLag, Duration checkInterval) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+    }
+
+    public void start() {
+
+        // prva provjera odmah, da routing od starta zna stanje replike
+        check();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(this::check, checkInterval.toMillis(), checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    // zadnji izmjereni zaostatak u sekundama, -1 ako ga nije bilo moguće izmjeriti
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public void check() {
+
+        Long lag;
+
+        try {
+            lag = replicaJdbcTemplate.query(lagQuery, this::extractLagSeconds);
+        } catch (DataAccessException e) {
+            log.debug("Replica lag check failed", e);
+            lag = null;
+        }
+
+        boolean available = lag != null && lag <= maxLag.toSeconds();
+
+        lagSeconds = lag != null ? lag : -1;
+
+        if (available != replicaAvailable) {
+            if (available) {
+                log.info("Replica available (lag {} s), read-only transactions go to the replica", lag);
+            } else {
+                log.warn("Replica unavailable or lagging (lag {} s, max {} s), read-only transactions go to the primary",
+                        lag, maxLag.toSeconds());
+            }
+        }
+
+        replicaAvailable = available;
+    }
+
+    private Long extractLagSeconds(ResultSet resultSet) throws SQLException {
+
+        if (!resultSet.next()) {
+            return null;
+        }
+
+        long lag = resultSet.getLong(lagColumn(resultSet.getMetaData()));
+
+        return resultSet.wasNull() ? null : lag;
+    }
+
+    private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            for (String lagColumn : LAG_COLUMNS) {
+                if (lagColumn.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                    return i;
+                }
+            }
+        }
+
+        return 1;
+    }
+}
@@ -0,0 +1,78 @@
+package guru.springframework.spring6restmvc.config;
+
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Timer za svaki poziv BeerService/CustomerService metode (app.service.calls, tagovi service, method, exception) -
+ * count iz timera je ujedno i brojač poziva/grešaka. listBeers* metode dodatno bilježe app.beer.list s tagom filter
+ * (name/style/both/none), jer se upiti po filterima bitno razlikuju u cijeni.
+ * Pozivi repozitorija se mjere automatski (Spring Boot spring.data.repository.invocations).
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    public static final String SERVICE_TIMER = "app.service.calls";
+    public static final String BEER_LIST_TIMER = "app.beer.list";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(* guru.springframework.spring6restmvc.services.BeerService.*(..)) " +
+            "|| execution(* guru.springframework.spring6restmvc.services.CustomerService.*(..)) " +
+            "|| execution(* guru.springframework.spring6restmvc.services.BeerOrderService.*(..))")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        String service = AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName();
+        String method = joinPoint.getSignature().getName();
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(SERVICE_TIMER)
+                    .description("BeerService/CustomerService calls")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+
+            if (method.startsWith("listBeers")) {
+                Object[] args = joinPoint.getArgs();
+
+                sample.stop(Timer.builder(BEER_LIST_TIMER)
+                        .description("Beer listing by filter mode")
+                        .tag("method", method)
+                        .tag("filter", filterMode(args[0], args[1]))
+                        .tag("exception", exception)
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    private static String filterMode(Object beerName, Object beerStyle) {
+
+        boolean byName = beerName instanceof String name && StringUtils.hasText(name);
+        boolean byStyle = beerStyle instanceof BeerStyle;
+
+        if (byName && byStyle) {
+            return "both";
+        }
+
+        return byName ? "name" : byStyle ? "style" : "none";
+    }
+}
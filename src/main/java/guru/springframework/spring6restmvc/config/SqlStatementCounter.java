@@ -0,0 +1,63 @@
+package guru.springframework.spring6restmvc.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Broji SQL naredbe koje Hibernate pripremi na trenutnom thread-u. Brojanje je aktivno samo unutar otvorenog Scope-a
+ * (HTTP request u SqlStatementCountingFilter, ili test), a scope-ovi se mogu ugnijezditi - naredba se broji u svakom
+ * otvorenom scope-u na thread-u.
+ * <p>
+ * Ne vidi JDBC mimo Hibernate-a (Flyway, JdbcTemplate) ni upite s drugih thread-ova (npr. StreamingResponseBody
+ * koji se piše asinkrono).
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public String inspect(String sql) {
+
+        Deque<Scope> scopes = SCOPES.get();
+
+        for (Scope scope : scopes) {
+            scope.count++;
+        }
+
+        return sql;
+    }
+
+    public static Scope openScope() {
+
+        Scope scope = new Scope();
+        SCOPES.get().push(scope);
+
+        return scope;
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private long count;
+
+        private Scope() {
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() {
+
+            Deque<Scope> scopes = SCOPES.get();
+            scopes.remove(this);
+
+            // ne ostavljamo praznu listu na thread-u iz pool-a
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+    }
+}
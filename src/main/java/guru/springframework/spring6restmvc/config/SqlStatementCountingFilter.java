@@ -0,0 +1,50 @@
+package guru.springframework.spring6restmvc.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Broji SQL naredbe po HTTP request-u i upozori kad request prijeđe app.sql.statement-warn-threshold - tipično
+ * N+1 upiti kad DTO/mapper dira lazy kolekcije (Beer.categories, Customer.beerOrders...).
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatementCountingFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_ATTRIBUTE = SqlStatementCountingFilter.class.getName() + ".count";
+
+    @Value("${app.sql.statement-warn-threshold:20}")
+    private long warnThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.openScope()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                long count = scope.getCount();
+                request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, count);
+
+                if (count > warnThreshold) {
+                    log.warn("{} {} executed {} SQL statements (threshold {}) - possible N+1 queries",
+                            request.getMethod(), request.getRequestURI(), count, warnThreshold);
+                } else {
+                    log.trace("{} {} executed {} SQL statements", request.getMethod(), request.getRequestURI(), count);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package guru.springframework.spring6restmvc.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Na kojim thread-ovima se izvršavaju request-i. Default su platform thread-ovi (Tomcat pool), a sa
+ * app.threads.virtual.enabled=true svaki request (i MVC async, npr. StreamingResponseBody) dobiva svoj virtual thread.
+ * Tada thread-ovi nisu ograničenje, nego baza - zato u tom modu radi i DbConcurrencyLimiter.
+ */
+@Slf4j
+@Configuration
+public class ThreadingConfig {
+
+    public static final String VIRTUAL_THREADS_PROPERTY = "app.threads.virtual.enabled";
+
+    // Spring Boot ne kreira svoj applicationTaskExecutor čim postoji bilo koji Executor bean (npr. beerImportExecutor),
+    // pa bi MVC async pao na SimpleAsyncTaskExecutor (novi thread za svaki zahtjev) - zato ga definiramo sami, ovisno o modu
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnProperty(name = VIRTUAL_THREADS_PROPERTY, havingValue = "false", matchIfMissing = true)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder taskExecutorBuilder) {
+        return taskExecutorBuilder.build();
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnProperty(name = VIRTUAL_THREADS_PROPERTY, havingValue = "true")
+    public AsyncTaskExecutor virtualThreadApplicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = VIRTUAL_THREADS_PROPERTY, havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+
+        log.info("Tomcat requests will run on virtual threads");
+
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newVirtualThreadPerTaskExecutor());
+    }
+}
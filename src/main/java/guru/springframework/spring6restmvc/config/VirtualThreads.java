@@ -0,0 +1,33 @@
+package guru.springframework.spring6restmvc.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pristup virtual thread-ovima bez ovisnosti o verziji JDK-a kod kompajliranja. Projekt cilja Java 20, gdje su
+ * virtual thread-ovi još preview API (treba --enable-preview), pa se Executors.newVirtualThreadPerTaskExecutor()
+ * poziva preko MethodHandle-a. Na Java 21+ radi bez dodatnih opcija.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+
+        try {
+            MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+
+            return (ExecutorService) factory.invokeExact();
+        } catch (NoSuchMethodException | IllegalAccessException | UnsupportedOperationException e) {
+            // Java 20 bez --enable-preview baca UnsupportedOperationException, stariji JDK nema metodu
+            throw new IllegalStateException("Virtual threads need Java 21+, or Java 20 started with --enable-preview", e);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not create virtual thread executor", e);
+        }
+    }
+}
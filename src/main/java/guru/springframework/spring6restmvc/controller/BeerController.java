@@ -1,36 +1,64 @@
 package guru.springframework.spring6restmvc.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import guru.springframework.spring6restmvc.model.BeerBatchResultDTO;
+import guru.springframework.spring6restmvc.model.BeerCursorPageDTO;
 import guru.springframework.spring6restmvc.model.BeerDTO;
 import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.services.BeerCursorCodec;
 import guru.springframework.spring6restmvc.services.BeerService;
+import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
 @Slf4j
 @RequiredArgsConstructor
 @RestController
+@Validated      // method validation, da se provjere i constrainti na elementima liste (List<@NotNull BeerDTO>)
 // @RequestMapping("/api/v1/beer")  // ovdje smo na cijelu klasu postavili osnovno url za API
 // u varijanti refactoringa ovo mičemo jer sad imamo BEER_PATH i BEER_PATH_ID varijable, pa ne moramo postavljati "osnovni" path na razini cijele klase
 public class BeerController {
 
     public static final     String BEER_PATH = "/api/v1/beer";
     public static final     String BEER_PATH_ID = BEER_PATH + "/{beerId}";
+    public static final     String BEER_BATCH_PATH = BEER_PATH + "/batch";
+    public static final     String BEER_STREAM_PATH = BEER_PATH + "/stream";
+    public static final     String BEER_ASYNC_PATH_ID = BEER_PATH + "/async/{beerId}";
+
+    public static final     int BEER_BATCH_MAX_SIZE = 10000;
+
+    private static final    int STREAM_BUFFER_SIZE = 64 * 1024;
 
     private final           BeerService beerService;
+    private final           ObjectMapper objectMapper;
 
     // radimo refactoring preko constant varijabli @PatchMapping("{beerId}")
     @PatchMapping(value = BEER_PATH_ID)
     public ResponseEntity updateBeerPatchById(@PathVariable("beerId") UUID beerId, @RequestBody BeerDTO beer) {
 
-        beerService.patchBeerById(beerId, beer);
+        if (!beerService.patchBeerById(beerId, beer)) {
+            throw new NotFoundException();
+        }
 
         return new ResponseEntity(HttpStatus.NO_CONTENT);
     }
@@ -67,7 +95,7 @@ public class BeerController {
         BeerDTO savedBeer = beerService.saveNewBeer(beer);
 
         //nakon snimanja trebao bi dobiti neki id
-        System.out.println(savedBeer);
+        log.debug("Saved beer {}", savedBeer.getId());
 
 
         //iako je savršeno ok prihvatit beer objekt i snimit ga u Map kolekciju, pozivatelju vratiti 201, ipak ćemo dodati par headera sa dodatnim informacijama za pozivatelja
@@ -79,6 +107,19 @@ public class BeerController {
         return new ResponseEntity(headers, HttpStatus.CREATED);
     }
 
+    // bulk create/update (npr. sync cijena od dobavljača). Svaki element se validira zasebno, pa neispravni zapisi
+    // ne ruše cijeli zahtjev - u odgovoru je status (CREATED/UPDATED/NOT_FOUND/INVALID) za svaki poslani element.
+    // Jedino null element (npr. [null] u JSON-u) odbijamo odmah s 400, jer za njega nema smislenog statusa
+    @PostMapping(value = BEER_BATCH_PATH)
+    public ResponseEntity<List<BeerBatchResultDTO>> handleBatch(@RequestBody List<@NotNull BeerDTO> beers) {
+
+        if (beers.size() > BEER_BATCH_MAX_SIZE) {
+            throw new BadRequestException("Batch size is limited to " + BEER_BATCH_MAX_SIZE + " beers");
+        }
+
+        return ResponseEntity.ok(beerService.saveBeersInBatch(beers));
+    }
+
     //refactoring @RequestMapping(method = RequestMethod.GET)     // bolje da osnovni "RequestMapping" dignemo na "cijelu klasu", kao osnovni endpoint "/api/v1/beer", pa nam value ne treba,
                                                     // jer se automatski naslijeđuje "osnovni" mapping "/api/v1/beer"
                                                     // Dakle, isto je kao da piše : @RequestMapping(value = "/api/v1/beer/", method = RequestMethod.GET)
@@ -107,6 +148,39 @@ public class BeerController {
 
     }
 
+    // ?includeTotal=false - klijent ne treba ukupan broj zapisa (npr. UI samo prikazuje "iduća stranica"), pa vraćamo Slice bez COUNT upita
+    @GetMapping(value = BEER_PATH, params = {"includeTotal=false", "!cursor"})
+    public Slice<BeerDTO> listBeersSlice(@RequestParam(name = "beerName", required = false) String beerName,
+                                         @RequestParam(required = false) BeerStyle beerStyle,
+                                         @RequestParam(required = false) Boolean showInventory,
+                                         @RequestParam(required = false) Integer pageNumber,
+                                         @RequestParam(required = false) Integer pageSize) {
+
+        return beerService.listBeersSlice(beerName, beerStyle, showInventory, pageNumber, pageSize);
+    }
+
+    // keyset (seek) paginacija - aktivira se kad je u upitu prisutan "cursor" parametar (za prvu stranicu prazan: ?cursor=).
+    // Nema COUNT upita ni OFFSET-a, pa latencija ne raste što dublje klijent lista katalog
+    @GetMapping(value = BEER_PATH, params = "cursor")
+    public BeerCursorPageDTO listBeersByCursor(@RequestParam(name = "beerName", required = false) String beerName,
+                                               @RequestParam(required = false) BeerStyle beerStyle,
+                                               @RequestParam(required = false) Boolean showInventory,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer pageSize) {
+        BeerCursorCodec.Position position = null;
+
+        // samo dekodiranje cursora je greška klijenta - IllegalArgumentException iz servisa nije "Invalid cursor"
+        if (StringUtils.hasText(cursor)) {
+            try {
+                position = BeerCursorCodec.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid cursor", e);
+            }
+        }
+
+        return beerService.listBeersByCursor(beerName, beerStyle, showInventory, position, pageSize);
+    }
+
     // refactoring @RequestMapping(value = "{beerID}", method = RequestMethod.GET)      //obzirom da naslijeđuje "osnovni dio", ostaje nam još samo parametar. To je ekvivalent @RequestMapping(value = "/api/v1/beer/{beerID}", method = RequestMethod.GET) da nema "osnovnog mapiranja" na razini klase
     // @RequestMapping(value = "/api/v1/beer/{beerID}", method = RequestMethod.GET)  //želimo da se ova metoda invoka samo za Get pozive, ostale ignoriraj
 
@@ -125,6 +199,52 @@ public class BeerController {
 
      */
 
+    // streaming varijanta listBeers: piva idu klijentu redom kako se čitaju iz baze (NDJSON, ili JSON array uz
+    // "Accept: application/json"), bez stranica i bez držanja cijelog rezultata u memoriji. Odgovor se piše na
+    // MVC async executoru, pa Tomcat request thread ne čeka kraj čitanja. Uz uključen DbConcurrencyLimiter stream drži
+    // dozvolu (i konekciju) sve dok klijent ne pročita zadnje pivo
+    @GetMapping(value = BEER_STREAM_PATH, produces = {CustomerController.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamBeers(@RequestParam(required = false) String beerName,
+                                                             @RequestParam(required = false) BeerStyle beerStyle,
+                                                             @RequestParam(required = false) Boolean showInventory,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        boolean jsonArray = accept != null && accept.contains(MediaType.APPLICATION_JSON_VALUE);
+
+        ObjectWriter writer = objectMapper.writerFor(BeerDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+
+        StreamingResponseBody body = outputStream -> {
+            BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(outputStream, STREAM_BUFFER_SIZE);
+
+            try (SequenceWriter sequenceWriter = jsonArray
+                    ? writer.writeValuesAsArray(bufferedOutputStream)
+                    : writer.writeValues(bufferedOutputStream)) {
+
+                beerService.streamBeers(beerName, beerStyle, showInventory, beer -> {
+                    try {
+                        sequenceWriter.write(beer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);  // npr. klijent je prekinuo vezu
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.parseMediaType(CustomerController.APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    // isto kao getBeerById, ali se dohvat izvršava na MVC async executoru (uz app.threads.virtual.enabled na virtual
+    // thread-u), a Tomcat thread se odmah oslobađa. NotFoundException iz Callable-a i dalje daje 404
+    @GetMapping(value = BEER_ASYNC_PATH_ID)
+    public Callable<BeerDTO> getBeerByIdAsync(@PathVariable("beerId") UUID beerID) {
+
+        return () -> beerService.getBeerById(beerID).orElseThrow(NotFoundException::new);
+    }
+
     @GetMapping(value = BEER_PATH_ID)
     public BeerDTO getBeerById(@PathVariable("beerId") UUID beerID) {  // možda bi Spring i sam matchirao beerID varijable iz @RequestMappinga i ovu dolje, ali bolje mu eksplicitno to naznačiti preko @PathVariable
 
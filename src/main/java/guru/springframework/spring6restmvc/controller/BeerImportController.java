@@ -0,0 +1,77 @@
+package guru.springframework.spring6restmvc.controller;
+
+import guru.springframework.spring6restmvc.model.BeerImportJobDTO;
+import guru.springframework.spring6restmvc.services.BeerImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+// CSV import kataloga piva. Upload se samo spremi u privremenu datoteku i preda BeerImportService-u,
+// a sam import se izvršava na zasebnom executoru - klijent odmah dobiva 202 i jobId za praćenje napretka
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+public class BeerImportController {
+
+    public static final     String BEER_IMPORT_PATH = BeerController.BEER_PATH + "/import";
+    public static final     String BEER_IMPORT_PATH_ID = BEER_IMPORT_PATH + "/{jobId}";
+
+    private final           BeerImportService beerImportService;
+
+    @PostMapping(value = BEER_IMPORT_PATH, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BeerImportJobDTO> handleImport(@RequestParam("file") MultipartFile file) {
+
+        if (file.isEmpty()) {
+            throw new BadRequestException("CSV file is empty");
+        }
+
+        // multipart datoteka postoji samo do kraja request-a, pa je za pozadinski import premjestimo u svoju
+        Path csvFile = transferToTempFile(file);
+
+        BeerImportJobDTO job;
+
+        try {
+            job = beerImportService.startImport(file.getOriginalFilename(), csvFile);
+        } catch (TaskRejectedException e) {
+            throw new ServiceUnavailableException("Too many beer imports in progress", e);
+        }
+
+        log.debug("Started beer import {} for file {}", job.getId(), job.getFileName());
+
+        HttpHeaders headers = new HttpHeaders();
+
+        headers.add("Location", BEER_IMPORT_PATH + "/" + job.getId().toString());
+
+        return new ResponseEntity<>(job, headers, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping(value = BEER_IMPORT_PATH_ID)
+    public BeerImportJobDTO getImportJob(@PathVariable("jobId") UUID jobId) {
+
+        return beerImportService.getImportJob(jobId).orElseThrow(NotFoundException::new);
+    }
+
+    private Path transferToTempFile(MultipartFile file) {
+
+        try {
+            Path csvFile = Files.createTempFile("beer-import-", ".csv");
+            file.transferTo(csvFile);
+
+            return csvFile;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package guru.springframework.spring6restmvc.controller;
+
+import guru.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import guru.springframework.spring6restmvc.model.BeerOrderDTO;
+import guru.springframework.spring6restmvc.services.BeerOrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+public class BeerOrderController {
+
+    public static final     String BEER_ORDER_PATH = "/api/v1/beerorder";
+    public static final     String BEER_ORDER_PATH_ID = BEER_ORDER_PATH + "/{beerOrderId}";
+
+    private final           BeerOrderService beerOrderService;
+
+    @PostMapping(value = BEER_ORDER_PATH)
+    public ResponseEntity<BeerOrderDTO> createOrder(@Validated @RequestBody BeerOrderCreateDTO beerOrder) {
+
+        BeerOrderDTO savedOrder = beerOrderService.createOrder(beerOrder);
+
+        log.debug("Saved beer order {}", savedOrder.getId());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Location", BEER_ORDER_PATH + "/" + savedOrder.getId().toString());
+
+        // za razliku od POST-a na /beer vraćamo i body, klijent iz njega vidi koliko je po stavkama stvarno alocirano
+        return new ResponseEntity<>(savedOrder, headers, HttpStatus.CREATED);
+    }
+
+    @GetMapping(value = BEER_ORDER_PATH_ID)
+    public BeerOrderDTO getOrderById(@PathVariable("beerOrderId") UUID beerOrderId) {
+
+        return beerOrderService.getOrderById(beerOrderId).orElseThrow(NotFoundException::new);
+    }
+}
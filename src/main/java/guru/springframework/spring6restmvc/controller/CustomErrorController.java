@@ -1,6 +1,8 @@
 package guru.springframework.spring6restmvc.controller;
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -29,21 +31,38 @@ public class CustomErrorController {
 
             ConstraintViolationException ve = (ConstraintViolationException) exception.getCause().getCause();
 
-            List errors = ve.getConstraintViolations().stream()
-                    .map(constraintViolation -> {
-                        Map<String, String>  errMap = new HashMap<>();   // lista Map objekata
+            return responseEntity.body(constraintViolationErrors(ve));
 
-                        errMap.put(constraintViolation.getPropertyPath().toString(), constraintViolation.getMessage());
+        }
 
-                        return  errMap;
-                    }).collect(Collectors.toList());
+        return responseEntity.build();
 
-            return responseEntity.body(errors);
+    }
 
-        }
+    // validacija izvan JPA flush-a, npr. PATCH preko direktnog UPDATE-a u BeerServiceJPA - isti format odgovora kao gore
+    @ExceptionHandler(ConstraintViolationException.class)
+    ResponseEntity handleConstraintViolations(ConstraintViolationException exception) {
 
-        return responseEntity.build();
+        return ResponseEntity.badRequest().body(constraintViolationErrors(exception));
+    }
+
+    // PATCH s version-om koji više ne odgovara onom u bazi - klijent mora ponovo dohvatiti zapis
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    ResponseEntity handleOptimisticLockingFailure(OptimisticLockingFailureException exception) {
 
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    private List constraintViolationErrors(ConstraintViolationException exception) {
+
+        return exception.getConstraintViolations().stream()
+                .map(constraintViolation -> {
+                    Map<String, String>  errMap = new HashMap<>();   // lista Map objekata
+
+                    errMap.put(constraintViolation.getPropertyPath().toString(), constraintViolation.getMessage());
+
+                    return  errMap;
+                }).collect(Collectors.toList());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -1,13 +1,23 @@
 package guru.springframework.spring6restmvc.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import guru.springframework.spring6restmvc.model.CustomerDTO;
 import guru.springframework.spring6restmvc.services.CustomerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,13 +32,22 @@ public class CustomerController {
 
     public static final String CUSTOMER_PATH = "/api/v1/customer";
     public static final String CUSTOMER_PATH_ID = CUSTOMER_PATH + "/{customerId}";
+    public static final String CUSTOMER_STREAM_PATH = CUSTOMER_PATH + "/stream";
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
 
     private final CustomerService customerService;
 
+    private final ObjectMapper objectMapper;
+
     @PatchMapping(CUSTOMER_PATH_ID)
     public ResponseEntity patchCustomerById(@PathVariable("customerId") UUID customerId, @RequestBody CustomerDTO customer) {
 
-        customerService.patchCustomerById(customerId, customer);
+        if (!customerService.patchCustomerById(customerId, customer)) {
+            throw new NotFoundException();
+        }
 
         return new ResponseEntity(HttpStatus.NO_CONTENT);
 
@@ -73,6 +92,48 @@ public class CustomerController {
         return customerService.getAllCustomers();
     }
 
+    // paginirana varijanta liste, aktivira se sa ?pageSize=... (pageNumber je opcionalan, kreće od 1)
+    @GetMapping(value = CUSTOMER_PATH, params = "pageSize")
+    public Page<CustomerDTO> listCustomers(@RequestParam(required = false) Integer pageNumber,
+                                           @RequestParam(required = false) Integer pageSize) {
+        return customerService.listCustomers(pageNumber, pageSize);
+    }
+
+    // streaming svih customera: zapisi idu klijentu čim se pročitaju iz baze, pa memorija ne ovisi o veličini tablice.
+    // Default je NDJSON (jedan JSON objekt po liniji), a uz "Accept: application/json" dobije se klasični JSON array
+    @GetMapping(value = CUSTOMER_STREAM_PATH, produces = {APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAllCustomers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        boolean jsonArray = accept != null && accept.contains(MediaType.APPLICATION_JSON_VALUE);
+
+        // flush nakon svakog zapisa bi bio preskup, buffer se ionako prazni kad se napuni
+        ObjectWriter writer = objectMapper.writerFor(CustomerDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+
+        StreamingResponseBody body = outputStream -> {
+            BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(outputStream, STREAM_BUFFER_SIZE);
+
+            try (SequenceWriter sequenceWriter = jsonArray
+                    ? writer.writeValuesAsArray(bufferedOutputStream)
+                    : writer.writeValues(bufferedOutputStream)) {
+
+                customerService.streamAllCustomers(customer -> {
+                    try {
+                        sequenceWriter.write(customer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);  // npr. klijent je prekinuo vezu
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
     // @RequestMapping(value = "{customerId}", method = RequestMethod.GET) //kad upotrijebimo vitičaste zagrade naznačujemo da se radi o path parametru u pozivu metode
     @GetMapping(value = CUSTOMER_PATH_ID)
     public CustomerDTO getCustomerById(@PathVariable("customerId") UUID id){
@@ -2,6 +2,7 @@ package guru.springframework.spring6restmvc.entities;
 
 import guru.springframework.spring6restmvc.model.BeerStyle;
 import jakarta.persistence.*;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -9,7 +10,6 @@ import lombok.*;
 import org.hibernate.annotations.*;
 import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.annotation.Version;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -27,14 +27,16 @@ import static java.sql.JDBCType.SMALLINT;
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
+// bulk UPDATE-i na Beer (PATCH, alokacija zalihe) izbace cijelu "beer" regiju - vidi application.properties
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "beer")  // puno ime - i jakarta.persistence ima Cache
+@DynamicUpdate  // UPDATE sadrži samo promijenjena polja - inače PUT/batch vrate stari quantityOnHand preko alokacija narudžbi
 public class Beer {
 
 
     @jakarta.persistence.Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
-    @JdbcTypeCode(SqlTypes.CHAR)
-    @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false)
+    @TimeOrderedUuid
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", updatable = false, nullable = false)
     private UUID id;
 
     @Version
@@ -65,6 +67,7 @@ public class Beer {
 
     @Builder.Default
     @ManyToMany
+    @org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "beer-categories")
     /* u join kolonu prema veznoj tablici (beer_category) prvo ide kolona iz ovog objekta-tablice (Beer), a inverzna kolona je druga vezna kolona, odnosno category_id,
     koja je dio kompozitnog ključa u veznoj tablici.
 
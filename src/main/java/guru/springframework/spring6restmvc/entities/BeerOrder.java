@@ -19,7 +19,6 @@ package guru.springframework.spring6restmvc.entities;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.type.SqlTypes;
@@ -56,13 +55,9 @@ public class BeerOrder {
     }
 
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(
-            name = "UUID",
-            strategy = "org.hibernate.id.UUIDGenerator"
-    )
-    @JdbcTypeCode(SqlTypes.CHAR)
-    @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false )
+    @TimeOrderedUuid
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", updatable = false, nullable = false)
     private UUID id;
 
     @Version
@@ -94,6 +89,12 @@ public class BeerOrder {
         customer.getBeerOrders().add(this);  //osiguravam vezu između beerOrder-a i customera
     }
 
+    // samo FK strana (customer_id), bez dodavanja u customer.getBeerOrders() - ta lazy kolekcija bi za novu narudžbu
+    // učitala cijelu povijest narudžbi kupca. Za nove narudžbe iz BeerOrderServiceImpl, gdje je customer referenca
+    public void setCustomerReference(Customer customer) {
+        this.customer = customer;
+    }
+
     public void setBeerOrderShipment(BeerOrderShipment beerOrderShipment) {
         this.beerOrderShipment = beerOrderShipment;
         beerOrderShipment.setBeerOrder(this);
@@ -101,7 +102,8 @@ public class BeerOrder {
 
 
 
-    @OneToMany(mappedBy = "beerOrder")  //ovo kaže da referencira BeerOrderLine preko kolone/atributa beerOrder, koji još ne posotji, ali dodat ćemo ga u BeerOrderLine
+    // PERSIST: stavke se snimaju zajedno s narudžbom (BeerOrderServiceImpl), Hibernate ih šalje u jednom JDBC batch-u
+    @OneToMany(mappedBy = "beerOrder", cascade = CascadeType.PERSIST)  //ovo kaže da referencira BeerOrderLine preko kolone/atributa beerOrder, koji još ne posotji, ali dodat ćemo ga u BeerOrderLine
     private Set<BeerOrderLine> beerOrderLines;
 
     @OneToOne(cascade = CascadeType.PERSIST)  //ovo će pomoći da sam Hibernate izgenerira id za BeerOrder tip objekta prije spremanja u bazu
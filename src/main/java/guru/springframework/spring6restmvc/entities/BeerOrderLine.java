@@ -36,13 +36,9 @@ import java.util.UUID;
 public class BeerOrderLine {
 
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(
-            name = "UUID",
-            strategy = "org.hibernate.id.UUIDGenerator"
-    )
-    @JdbcTypeCode(SqlTypes.CHAR)
-    @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false )
+    @TimeOrderedUuid
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", updatable = false, nullable = false)
     private UUID id;
 
     @Version
@@ -67,4 +63,10 @@ public class BeerOrderLine {
 
     private Integer orderQuantity = 0;
     private Integer quantityAllocated = 0;
+
+    // je li quantityAllocated već skinut s beer.quantity_on_hand. DatabaseInventoryAllocator skida odmah (true),
+    // ReservationInventoryAllocator rezervira u memoriji, a u bazu to odlazi periodičnim flush-em
+    @Builder.Default
+    @Column(nullable = false)
+    private Boolean allocationFlushed = true;
 }
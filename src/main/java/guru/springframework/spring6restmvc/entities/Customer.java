@@ -1,11 +1,11 @@
 package guru.springframework.spring6restmvc.entities;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.*;
-import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
-import org.springframework.data.annotation.Version;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -32,20 +32,14 @@ public class Customer {
     // pazi da slučajno ne uzmeš krivu @Id anotaciju, jer onda neće raditi, mora biti ova iz jakarta.persistence
 
     @jakarta.persistence.Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(
-            name = "UUID",
-            strategy = "org.hibernate.id.UUIDGenerator"
-    )
-    @JdbcTypeCode(SqlTypes.CHAR)
-    @Column(name = "id",
-            updatable = false,
-            nullable = false,
-            length = 36,
-            columnDefinition = "varchar(36)")
+    @TimeOrderedUuid
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", updatable = false, nullable = false)
 
     private UUID id;
 
+    @NotBlank
+    @Size(max = 255)
     private String name;
 
 
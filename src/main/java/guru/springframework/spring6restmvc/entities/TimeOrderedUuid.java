@@ -0,0 +1,18 @@
+package guru.springframework.spring6restmvc.entities;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id entiteta se generira kao vremenski poredan UUID (verzija 7), vidi TimeOrderedUuidGenerator.
+ * Zamjenjuje @GeneratedValue + @GenericGenerator(strategy = "org.hibernate.id.UUIDGenerator").
+ */
+@IdGeneratorType(TimeOrderedUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedUuid {
+}
@@ -0,0 +1,54 @@
+package guru.springframework.spring6restmvc.mappers;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.model.BeerCSVRecord;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Pretvara jedan redak iz CSV-a u Beer entitet. Isto mapiranje koriste i BootstrapData (classpath CSV)
+ * i import preko POST /api/v1/beer/import, pa je izdvojeno ovdje.
+ */
+@Component
+public class BeerCsvRecordConverter implements Converter<BeerCSVRecord, Beer> {
+
+    @Override
+    public Beer convert(BeerCSVRecord beerCSVRecord) {
+
+        int max=12,min=6;
+
+        return Beer.builder()
+                .beerName(StringUtils.abbreviate(beerCSVRecord.getBeer(), 50))
+                .beerStyle(toBeerStyle(beerCSVRecord.getStyle()))
+                // .price(BigDecimal.TEN)
+                .price(new BigDecimal(min + (float)(Math.random() * ((max - min) + 0.1))))
+                .upc(beerCSVRecord.getRow() == null ? null : beerCSVRecord.getRow().toString())
+                .quantityOnHand(beerCSVRecord.getCount())
+                .build();
+    }
+
+    public BeerStyle toBeerStyle(String style) {
+
+        // uploadani CSV može imati prazan stupac, a switch na null baca NullPointerException
+        if (style == null) {
+            return BeerStyle.PILSNER;
+        }
+
+        return switch (style) {
+            case "American Pale Lager" -> BeerStyle.LAGER;
+            case "American Pale Ale (APA)", "American Black Ale", "Belgian Dark Ale", "American Blonde Ale" ->
+                    BeerStyle.ALE;
+            case "American IPA", "American Double / Imperial IPA", "Belgian IPA" -> BeerStyle.IPA;
+            case "American Porter" -> BeerStyle.PORTER;
+            case "Oatmeal Stout", "American Stout" -> BeerStyle.STOUT;
+            case "Saison / Farmhouse Ale" -> BeerStyle.SAISON;
+            case "Fruit / Vegetable Beer", "Winter Warmer", "Berliner Weissbier" -> BeerStyle.WHEAT;
+            case "English Pale Ale" -> BeerStyle.PALE_ALE;
+            default -> BeerStyle.PILSNER;
+        };
+    }
+}
@@ -2,6 +2,7 @@ package guru.springframework.spring6restmvc.mappers;
 
 import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerProjection;
 import org.mapstruct.Mapper;
 
 @Mapper
@@ -12,4 +13,6 @@ public interface BeerMapper {
     BeerDTO beerToBeerDTO(Beer beer);
 
     BeerDTO beerToBeerDto(Beer beer);
+
+    BeerDTO beerProjectionToBeerDto(BeerProjection projection);
 }
@@ -0,0 +1,23 @@
+package guru.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Rezultat za jedan BeerDTO iz bulk zahtjeva (POST /api/v1/beer/batch). index je pozicija u poslanoj listi,
+ * a errors ima isti oblik kao i odgovor na neispravan pojedinačni POST (lista {property: poruka}).
+ */
+@Builder
+@Data
+public class BeerBatchResultDTO {
+
+    private int index;
+    private UUID id;
+    private BeerBatchStatus status;
+    private List<Map<String, String>> errors;
+
+}
@@ -0,0 +1,6 @@
+package guru.springframework.spring6restmvc.model;
+
+public enum BeerBatchStatus {
+
+    CREATED, UPDATED, NOT_FOUND, INVALID
+}
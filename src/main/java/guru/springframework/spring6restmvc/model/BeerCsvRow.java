@@ -0,0 +1,25 @@
+package guru.springframework.spring6restmvc.model;
+
+/**
+ * Redak iz beers.csv kako ga vraća BeerCsvService.convertCSVParallel - isti stupci kao BeerCSVRecord, ali s primitivnim
+ * poljima umjesto Integer/Float, bez reflection bindinga. "NA" (ili prazno) u cjelobrojnom stupcu postaje NA,
+ * a u abv/ounces Double.NaN / Float.NaN.
+ */
+public record BeerCsvRow(int row,
+                         int count,
+                         double abv,
+                         int ibu,
+                         int id,
+                         String beer,
+                         String style,
+                         int breweryId,
+                         float ounces,
+                         String style2,
+                         int countY,
+                         String city,
+                         String state,
+                         String label) {
+
+    public static final int NA = Integer.MIN_VALUE;
+
+}
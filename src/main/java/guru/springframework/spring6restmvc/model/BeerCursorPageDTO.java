@@ -0,0 +1,24 @@
+package guru.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Jedna "stranica" keyset (seek) paginacije. Umjesto broja stranice klijent dobiva nextCursor,
+ * neprozirni token koji šalje natrag u idućem pozivu.
+ */
+@Builder
+@Data
+public class BeerCursorPageDTO {
+
+    private List<BeerDTO> content;
+
+    private int size;
+
+    private String nextCursor;  // null kad više nema podataka
+
+    private boolean hasNext;
+
+}
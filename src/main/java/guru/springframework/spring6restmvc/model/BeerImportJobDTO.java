@@ -0,0 +1,34 @@
+package guru.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stanje jednog CSV importa (POST /api/v1/beer/import). Klijent ga dohvaća preko GET /api/v1/beer/import/{jobId}
+ * dok status ne postane COMPLETED ili FAILED.
+ */
+@Builder
+@Data
+public class BeerImportJobDTO {
+
+    private UUID id;
+    private String fileName;
+    private BeerImportStatus status;
+
+    private long rowsProcessed;
+    private long rowsImported;
+    private long errorCount;
+    private long rowsPerSecond;
+
+    private List<String> errors;    // samo prvih nekoliko grešaka po retku, ukupan broj je u errorCount
+    private String failureMessage;  // razlog zašto je cijeli import završio kao FAILED
+
+    private LocalDateTime createdDate;
+    private LocalDateTime startedDate;
+    private LocalDateTime finishedDate;
+
+}
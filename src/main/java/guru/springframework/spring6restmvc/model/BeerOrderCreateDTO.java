@@ -0,0 +1,28 @@
+package guru.springframework.spring6restmvc.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Nova narudžba (POST /api/v1/beerorder) - customer i stavke s količinama, sve ostalo (id-evi, alocirane količine)
+ * odredi BeerOrderService.
+ */
+@Builder
+@Data
+public class BeerOrderCreateDTO {
+
+    @NotNull
+    private UUID customerId;
+
+    private String customerRef;
+
+    @NotEmpty
+    private List<@Valid @NotNull BeerOrderLineCreateDTO> beerOrderLines;
+
+}
@@ -0,0 +1,22 @@
+package guru.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+@Data
+public class BeerOrderDTO {
+
+    private UUID id;
+    private Long version;
+    private UUID customerId;
+    private String customerRef;
+    private List<BeerOrderLineDTO> beerOrderLines;
+    private Timestamp createdDate;
+    private Timestamp lastModifiedDate;
+
+}
@@ -0,0 +1,10 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.util.UUID;
+
+/**
+ * Stavka narudžbe čija alokacija još nije skinuta s Beer.quantityOnHand (allocationFlushed = false),
+ * puni se direktno iz JPQL upita u BeerOrderLineRepository.
+ */
+public record BeerOrderLineAllocation(UUID beerOrderLineId, UUID beerId, Integer quantityAllocated) {
+}
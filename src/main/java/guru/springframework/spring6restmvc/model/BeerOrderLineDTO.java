@@ -0,0 +1,20 @@
+package guru.springframework.spring6restmvc.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Builder
+@Data
+public class BeerOrderLineDTO {
+
+    private UUID id;
+    private Long version;
+    private UUID beerId;
+    private Integer orderQuantity;
+
+    // koliko je stvarno skinuto s Beer.quantityOnHand - 0 ako u trenutku narudžbe nije bilo dovoljno na stanju
+    private Integer quantityAllocated;
+
+}
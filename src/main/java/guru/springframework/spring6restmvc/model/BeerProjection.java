@@ -0,0 +1,33 @@
+package guru.springframework.spring6restmvc.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Stupci piva potrebni za BeerDTO, puni se direktno iz JPQL constructor expression-a (select new ...) u
+ * BeerRepository. Za razliku od entiteta ne ide u persistence context, pa nema dirty checkinga ni snapshot-a.
+ * Drugi konstruktor koriste upiti bez inventory-ja - quantity_on_hand se tada uopće ne čita iz baze.
+ */
+public record BeerProjection(UUID id,
+                             Integer version,
+                             String beerName,
+                             BeerStyle beerStyle,
+                             String upc,
+                             Integer quantityOnHand,
+                             BigDecimal price,
+                             LocalDateTime createdDate,
+                             LocalDateTime updateDate) {
+
+    public BeerProjection(UUID id,
+                          Integer version,
+                          String beerName,
+                          BeerStyle beerStyle,
+                          String upc,
+                          BigDecimal price,
+                          LocalDateTime createdDate,
+                          LocalDateTime updateDate) {
+        this(id, version, beerName, beerStyle, upc, null, price, createdDate, updateDate);
+    }
+
+}
@@ -10,7 +10,7 @@ import java.util.UUID;
  * Created by jt, Spring Framework Guru.
  */
 @Data       // Milan Medić: Lombok @Data Generates getters for all fields, a useful toString method, and hashCode and equals implementations that check all non-transient fields. Will also generate setters for all non-final fields, as well as a constructor.
-@Builder
+@Builder(toBuilder = true)
 public class CustomerDTO {
 
     private UUID id;
@@ -0,0 +1,34 @@
+package guru.springframework.spring6restmvc.repositories;
+
+import guru.springframework.spring6restmvc.entities.BeerOrderLine;
+import guru.springframework.spring6restmvc.model.BeerOrderLineAllocation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface BeerOrderLineRepository extends JpaRepository<BeerOrderLine, UUID> {
+
+    // obično (ne-locking) čitanje - flush ne smije držati lock-ove na stavkama dok narudžbe dodaju nove
+    @Query("select new guru.springframework.spring6restmvc.model.BeerOrderLineAllocation(" +
+            "l.id, l.beer.id, l.quantityAllocated) " +
+            "from BeerOrderLine l where l.allocationFlushed = false")
+    List<BeerOrderLineAllocation> findUnflushedAllocations (Pageable pageable);
+
+    @Modifying
+    @Query("update BeerOrderLine l set l.allocationFlushed = true where l.id in :ids")
+    int markAllocationsFlushed (@Param("ids") Collection<UUID> ids);
+
+    // dostupna zaliha = quantity_on_hand minus sve što je rezervirano, a još nije skinuto - u jednom upitu,
+    // da flush koji se izvršava u isto vrijeme ne može biti uračunat dvaput. null ako pivo ne postoji
+    @Query("select coalesce(b.quantityOnHand, 0) - coalesce((select sum(l.quantityAllocated) from BeerOrderLine l " +
+            "where l.beer.id = b.id and l.allocationFlushed = false), 0) " +
+            "from Beer b where b.id = :beerId")
+    Long findAvailableInventory (@Param("beerId") UUID beerId);
+
+}
@@ -1,10 +1,16 @@
 package guru.springframework.spring6restmvc.repositories;
 
 import guru.springframework.spring6restmvc.entities.BeerOrder;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 public interface BeerOrderRepository extends JpaRepository<BeerOrder, UUID> {
 
+    // narudžba sa stavkama i pivima u jednom upitu, za GET /api/v1/beerorder/{beerOrderId}
+    @EntityGraph(attributePaths = {"customer", "beerOrderLines", "beerOrderLines.beer"})
+    Optional<BeerOrder> findWithLinesById(UUID id);
+
 }
@@ -1,11 +1,23 @@
 package guru.springframework.spring6restmvc.repositories;
 
 import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.model.BeerProjection;
 import guru.springframework.spring6restmvc.model.BeerStyle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface BeerRepository extends JpaRepository<Beer, UUID> {
 
@@ -27,5 +39,112 @@ public interface BeerRepository extends JpaRepository<Beer, UUID> {
 
     Page<Beer> findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle (String beerName, BeerStyle beerStyle, org.springframework.data.domain.Pageable pageable);
 
+    // Slice<> upiti - Spring Data za Slice ne radi COUNT upit, nego dohvati pageSize + 1 zapis da zna postoji li iduća stranica.
+    // Listanje ide preko projekcija: select new ... puni BeerProjection direktno iz kolona, bez managed entiteta.
+    // beerName i beerStyle filteri su opcionalni (null = bez filtera), sort dolazi iz Pageable-a
+
+    @Query("select new guru.springframework.spring6restmvc.model.BeerProjection(" +
+            "b.id, b.version, b.beerName, b.beerStyle, b.upc, b.quantityOnHand, b.price, b.createdDate, b.updateDate) " +
+            "from Beer b " +
+            "where (:beerName is null or lower(b.beerName) like lower(:beerName)) " +
+            "and (:beerStyle is null or b.beerStyle = :beerStyle)")
+    Slice<BeerProjection> findBeerProjections (@Param("beerName") String beerName,
+                                               @Param("beerStyle") BeerStyle beerStyle,
+                                               org.springframework.data.domain.Pageable pageable);
+
+    // isto, ali bez quantity_on_hand kolone u SELECT-u - za showInventory=false
+    @Query("select new guru.springframework.spring6restmvc.model.BeerProjection(" +
+            "b.id, b.version, b.beerName, b.beerStyle, b.upc, b.price, b.createdDate, b.updateDate) " +
+            "from Beer b " +
+            "where (:beerName is null or lower(b.beerName) like lower(:beerName)) " +
+            "and (:beerStyle is null or b.beerStyle = :beerStyle)")
+    Slice<BeerProjection> findBeerProjectionsWithoutInventory (@Param("beerName") String beerName,
+                                                               @Param("beerStyle") BeerStyle beerStyle,
+                                                               org.springframework.data.domain.Pageable pageable);
+
+    @Query("select b from Beer b")
+    Slice<Beer> findSliceOfAllBeers (org.springframework.data.domain.Pageable pageable);
+
+    // COUNT upiti za slučaj kad klijent ipak treba ukupan broj zapisa, rezultat se kešira u BeerCountCache
+
+    long countByBeerNameIsLikeIgnoreCase (String beerName);
+
+    long countByBeerStyle (BeerStyle beerStyle);
+
+    long countByBeerNameIsLikeIgnoreCaseAndBeerStyle (String beerName, BeerStyle beerStyle);
+
+    // pretraga preko FULLTEXT (ngram) indeksa iz V7/V10 migracije - samo MySQL. MATCH ... AGAINST suzi kandidate preko indeksa,
+    // a dodatni LIKE na tako malom skupu redova garantira iste rezultate kao i findAllByBeerNameIsLikeIgnoreCase.
+    // Sort je u samom upitu jer native query ne zna prevesti "beerName" property u ime kolone; id je tiebreak,
+    // jer imena nisu jedinstvena pa bi se kod OFFSET stranica isti zapis mogao ponoviti ili preskočiti
+
+    @Query(value = "select * from beer b where match(b.beer_name) against (:fullTextQuery in boolean mode) " +
+            "and lower(b.beer_name) like lower(:beerName) order by b.beer_name, b.id",
+            nativeQuery = true)
+    Slice<Beer> findSliceByBeerNameFullText (@Param("fullTextQuery") String fullTextQuery,
+                                             @Param("beerName") String beerName,
+                                             org.springframework.data.domain.Pageable pageable);
+
+    @Query(value = "select * from beer b where match(b.beer_name) against (:fullTextQuery in boolean mode) " +
+            "and lower(b.beer_name) like lower(:beerName) and b.beer_style = :beerStyle order by b.beer_name, b.id",
+            nativeQuery = true)
+    Slice<Beer> findSliceByBeerNameFullTextAndBeerStyle (@Param("fullTextQuery") String fullTextQuery,
+                                                         @Param("beerName") String beerName,
+                                                         @Param("beerStyle") int beerStyleOrdinal,
+                                                         org.springframework.data.domain.Pageable pageable);
+
+    @Query(value = "select count(*) from beer b where match(b.beer_name) against (:fullTextQuery in boolean mode) " +
+            "and lower(b.beer_name) like lower(:beerName)",
+            nativeQuery = true)
+    long countByBeerNameFullText (@Param("fullTextQuery") String fullTextQuery, @Param("beerName") String beerName);
+
+    @Query(value = "select count(*) from beer b where match(b.beer_name) against (:fullTextQuery in boolean mode) " +
+            "and lower(b.beer_name) like lower(:beerName) and b.beer_style = :beerStyle",
+            nativeQuery = true)
+    long countByBeerNameFullTextAndBeerStyle (@Param("fullTextQuery") String fullTextQuery,
+                                              @Param("beerName") String beerName,
+                                              @Param("beerStyle") int beerStyleOrdinal);
+
+    // keyset (seek) paginacija: umjesto OFFSET-a nastavljamo iza zadnjeg (beerName, id) para, a List<> umjesto Page<> znači da nema COUNT upita.
+    // beerName i beerStyle filteri su opcionalni (null = bez filtera), lastBeerName/lastId su null za prvu stranicu
+    @Query("select b from Beer b " +
+            "where (:beerName is null or lower(b.beerName) like lower(:beerName)) " +
+            "and (:beerStyle is null or b.beerStyle = :beerStyle) " +
+            "and (:lastBeerName is null or b.beerName > :lastBeerName or (b.beerName = :lastBeerName and b.id > :lastId)) " +
+            "order by b.beerName asc, b.id asc")
+    List<Beer> findBeerKeysetPage (@Param("beerName") String beerName,
+                                   @Param("beerStyle") BeerStyle beerStyle,
+                                   @Param("lastBeerName") String lastBeerName,
+                                   @Param("lastId") UUID lastId,
+                                   org.springframework.data.domain.Pageable pageable);
+
+    // svi filtrirani zapisi kao Stream - za streaming odgovor (GET /api/v1/beer/stream). Kao i
+    // CustomerRepository.streamAllCustomers mora se pozvati unutar transakcije i zatvoriti, a fetch size
+    // drži JDBC driver da ne povuče cijeli rezultat u memoriju
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select b from Beer b " +
+            "where (:beerName is null or lower(b.beerName) like lower(:beerName)) " +
+            "and (:beerStyle is null or b.beerStyle = :beerStyle) " +
+            "order by b.beerName asc, b.id asc")
+    Stream<Beer> streamBeers (@Param("beerName") String beerName, @Param("beerStyle") BeerStyle beerStyle);
+
+    // alokacija zalihe za narudžbu: provjera i umanjenje quantityOnHand u jednom UPDATE-u, bez SELECT-a i bez @Version
+    // provjere. Red ostaje zaključan do kraja transakcije, pa konkurentne narudžbe za isto pivo čekaju jedna drugu
+    // umjesto da se prepisuju. "update versioned" ipak podiže verziju, da PATCH s verzijom učitanom prije alokacije
+    // dobije 409. Vraća 1 ako je alocirano, 0 ako nema dovoljno na stanju (ili pivo ne postoji)
+    @Modifying
+    @Query("update versioned Beer b set b.quantityOnHand = b.quantityOnHand - :quantity " +
+            "where b.id = :beerId and b.quantityOnHand >= :quantity")
+    int allocateInventory (@Param("beerId") UUID beerId, @Param("quantity") int quantity);
+
+    // flush rezervacija iz ReservationInventoryAllocator-a: zbroj svih alokacija za pivo od zadnjeg flush-a u jednom UPDATE-u.
+    // Dostupnost je već provjerena u memoriji, pa ovdje nema uvjeta na quantityOnHand
+    @Modifying
+    @Query("update versioned Beer b set b.quantityOnHand = coalesce(b.quantityOnHand, 0) - :quantity " +
+            "where b.id = :beerId")
+    int deductInventory (@Param("beerId") UUID beerId, @Param("quantity") long quantity);
+
+    @Query("select b.id from Beer b where b.id in :ids")
+    Set<UUID> findExistingIds (@Param("ids") Collection<UUID> ids);
 
 }
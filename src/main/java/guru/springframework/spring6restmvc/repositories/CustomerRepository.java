@@ -1,10 +1,22 @@
 package guru.springframework.spring6restmvc.repositories;
 
 import guru.springframework.spring6restmvc.entities.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
 
+    // Stream<> umjesto List<> - zapisi se čitaju iz ResultSet-a jedan po jedan dok ih pozivatelj troši.
+    // Mora se pozvati unutar transakcije i zatvoriti (try-with-resources). Fetch size je potreban da JDBC driver
+    // ne povuče cijeli rezultat odjednom (za MySQL uz useCursorFetch=true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select c from Customer c order by c.name")
+    Stream<Customer> streamAllCustomers();
+
 }
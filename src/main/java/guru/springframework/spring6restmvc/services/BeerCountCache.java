@@ -0,0 +1,70 @@
+package guru.springframework.spring6restmvc.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Kratkotrajni keš ukupnog broja piva po kombinaciji filtera (beerName, beerStyle).
+ * COUNT sa "%name%" LIKE predikatom skenira cijelu tablicu, a ukupan broj se između dva poziva
+ * istog klijenta gotovo nikad ne mijenja - zato ga pamtimo do isteka TTL-a ili do prvog upisa.
+ */
+@Component
+public class BeerCountCache {
+
+    // filter po imenu dolazi od klijenta, pa ograničimo broj ključeva da keš ne raste bez kontrole.
+    // Caffeine kod punog keša izbaci pojedine (najmanje korištene) ključeve, a ne sve odjednom
+    private static final int MAX_ENTRIES = 1000;
+
+    private final Cache<Key, Long> counts;
+
+    // svaki invalidateAll() je nova generacija - COUNT koji je krenuo prije upisa svoj rezultat ne smije ostaviti u kešu
+    private final AtomicLong generation = new AtomicLong();
+
+    public BeerCountCache(@Value("${app.beer.count-cache.ttl:PT30S}") Duration ttl) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(MAX_ENTRIES)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public long getCount(String beerName, BeerStyle beerStyle, LongSupplier countQuery) {
+
+        Key key = new Key(beerName == null ? null : beerName.toLowerCase(Locale.ROOT), beerStyle);
+
+        Long cached = counts.getIfPresent(key);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        long queryGeneration = generation.get();
+        long count = countQuery.getAsLong();
+
+        counts.put(key, count);
+
+        // upis je invalidirao keš dok je upit trajao: ako je invalidateAll() već očistio keš prije našeg put-a,
+        // ovdje vidimo novu generaciju i brišemo svoj (možda zastario) rezultat; ako nije, clear ga tek briše
+        if (generation.get() != queryGeneration) {
+            counts.asMap().remove(key, count);
+        }
+
+        return count;
+    }
+
+    // svaki upis (novo pivo, promjena imena/stila, brisanje) može promijeniti brojeve za bilo koji filter
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        counts.invalidateAll();
+    }
+
+    private record Key(String beerName, BeerStyle beerStyle) {
+    }
+}
@@ -0,0 +1,477 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.model.BeerCsvRow;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Paralelni parser za beers.csv. Datoteka se mapira u memoriju (FileChannel.map), podijeli na dijelove poravnate
+ * na početak retka i svaki dio parsira zaseban zadatak na ForkJoinPool.commonPool(). Polja se čitaju direktno
+ * iz mapiranih bajtova - brojevi bez međukoraka preko String-a, a String se alocira samo za tekstualne stupce.
+ * <p>
+ * Pretpostavka je da quoted polja ne sadrže prijelaz u novi red (beers.csv ih nema) - inače se datoteka ne može
+ * dijeliti na granici retka bez sekvencijalnog čitanja, i za takav CSV treba koristiti opencsv (convertCSV/streamCSV).
+ */
+final class BeerCsvParallelParser {
+
+    // manji dijelovi od ovoga ne isplate trošak zadatka i mapiranja
+    private static final int MIN_SPLIT_SIZE = 1024 * 1024;
+
+    // najdulji redak koji tražimo kod poravnanja dijelova i čitanja zaglavlja
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    // MappedByteBuffer je indeksiran int-om, pa jedan dio (uključujući produženje do kraja retka) mora stati u 2GB
+    private static final long MAX_SPLIT_SIZE = Integer.MAX_VALUE - 2L * MAX_LINE_LENGTH;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // do ovoliko znamenki mantisa i 10^scale su točno prikazivi u double-u, pa je mantisa / 10^scale
+    // jednako zaokružen rezultat kao Double.parseDouble
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private enum Column {
+        ROW, COUNT, ABV, IBU, ID, BEER, STYLE, BREWERY_ID, OUNCES, STYLE2, COUNT_Y, CITY, STATE, LABEL, IGNORED
+    }
+
+    private static final Map<String, Column> COLUMNS_BY_HEADER = Map.ofEntries(
+            Map.entry("row", Column.ROW),
+            Map.entry("count.x", Column.COUNT),
+            Map.entry("abv", Column.ABV),
+            Map.entry("ibu", Column.IBU),
+            Map.entry("id", Column.ID),
+            Map.entry("beer", Column.BEER),
+            Map.entry("style", Column.STYLE),
+            Map.entry("brewery_id", Column.BREWERY_ID),
+            Map.entry("ounces", Column.OUNCES),
+            Map.entry("style2", Column.STYLE2),
+            Map.entry("count.y", Column.COUNT_Y),
+            Map.entry("city", Column.CITY),
+            Map.entry("state", Column.STATE),
+            Map.entry("label", Column.LABEL));
+
+    private BeerCsvParallelParser() {
+    }
+
+    static List<BeerCsvRow> parse(Path csvFile) {
+        return parse(csvFile, ForkJoinPool.commonPool());
+    }
+
+    static List<BeerCsvRow> parse(Path csvFile, ForkJoinPool pool) {
+
+        try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+
+            long size = channel.size();
+
+            if (size == 0) {
+                return List.of();
+            }
+
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_LINE_LENGTH));
+            int headerEnd = indexOfNewline(head, 0, head.limit());
+
+            if (headerEnd < 0 && size > MAX_LINE_LENGTH) {
+                throw new IllegalArgumentException("CSV header is longer than " + MAX_LINE_LENGTH + " bytes");
+            }
+
+            Column[] columns = parseHeader(head, headerEnd < 0 ? head.limit() : headerEnd);
+            long dataStart = headerEnd < 0 ? size : headerEnd + 1;
+
+            List<Callable<List<BeerCsvRow>>> tasks = new ArrayList<>();
+
+            for (long[] split : split(channel, dataStart, size, pool.getParallelism())) {
+                tasks.add(() -> parseSplit(channel, split[0], split[1], columns));
+            }
+
+            // invokeAll vraća future-e istim redoslijedom kao zadatke, pa retci ostaju u redoslijedu iz datoteke
+            List<List<BeerCsvRow>> parts = new ArrayList<>(tasks.size());
+
+            for (Future<List<BeerCsvRow>> future : pool.invokeAll(tasks)) {
+                parts.add(future.get());
+            }
+
+            List<BeerCsvRow> rows = new ArrayList<>(parts.stream().mapToInt(List::size).sum());
+            parts.forEach(rows::addAll);
+
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing " + csvFile, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // dijeli [dataStart, size) na dijelove koji počinju na početku retka
+    private static List<long[]> split(FileChannel channel, long dataStart, long size, int parallelism) throws IOException {
+
+        long dataSize = size - dataStart;
+
+        if (dataSize <= 0) {
+            return List.of();
+        }
+
+        // nekoliko dijelova po jezgri, da brži zadaci mogu preuzeti posao (work stealing) kad dijelovi nisu jednako spori
+        long splitCount = Math.max(1, Math.min(parallelism * 4L, dataSize / MIN_SPLIT_SIZE));
+        splitCount = Math.max(splitCount, (dataSize + MAX_SPLIT_SIZE - 1) / MAX_SPLIT_SIZE);
+
+        long splitSize = (dataSize + splitCount - 1) / splitCount;
+
+        List<long[]> splits = new ArrayList<>();
+        long start = dataStart;
+
+        while (start < size) {
+            long end = start + splitSize >= size ? size : nextLineStart(channel, start + splitSize, size);
+
+            splits.add(new long[]{start, end});
+            start = end;
+        }
+
+        return splits;
+    }
+
+    // prva pozicija nakon '\n' koji je na position - 1 ili kasnije
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position - 1;
+
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+
+            if (read <= 0) {
+                break;
+            }
+
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+
+            offset += read;
+
+            if (offset - position > MAX_LINE_LENGTH) {
+                throw new IllegalArgumentException("CSV line at offset " + position + " is longer than " + MAX_LINE_LENGTH + " bytes");
+            }
+        }
+
+        return size;
+    }
+
+    private static List<BeerCsvRow> parseSplit(FileChannel channel, long start, long end, Column[] columns) throws IOException {
+
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+
+        SplitParser parser = new SplitParser(buffer, columns);
+        List<BeerCsvRow> rows = new ArrayList<>();
+
+        while (parser.hasMore()) {
+            BeerCsvRow row = parser.nextRow();
+
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+
+        return rows;
+    }
+
+    private static Column[] parseHeader(ByteBuffer buffer, int end) {
+
+        SplitParser parser = new SplitParser(buffer.slice(0, end), new Column[0]);
+        List<Column> columns = new ArrayList<>();
+
+        while (parser.hasMore()) {
+            String name = parser.nextHeaderField();
+            columns.add(COLUMNS_BY_HEADER.getOrDefault(name.toLowerCase(Locale.ROOT), Column.IGNORED));
+        }
+
+        return columns.toArray(new Column[0]);
+    }
+
+    private static int indexOfNewline(ByteBuffer buffer, int from, int to) {
+
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Parsira jedan mapirani dio. Nije thread-safe - svaki zadatak ima svoju instancu (i svoj scratch buffer).
+     */
+    private static final class SplitParser {
+
+        private final ByteBuffer buffer;
+        private final Column[] columns;
+        private final int limit;
+
+        private int position;
+
+        // granice trenutnog polja
+        private int fieldStart;
+        private int fieldEnd;
+        private boolean fieldEscaped;   // quoted polje sadrži "" koje treba pretvoriti u "
+        private boolean endOfRecord;
+
+        private byte[] scratch = new byte[256];
+
+        // polja retka koji se trenutno parsira
+        private int row, count, ibu, id, breweryId, countY;
+        private double abv;
+        private float ounces;
+        private String beer, style, style2, city, state, label;
+
+        SplitParser(ByteBuffer buffer, Column[] columns) {
+            this.buffer = buffer;
+            this.columns = columns;
+            this.limit = buffer.limit();
+        }
+
+        boolean hasMore() {
+            return position < limit;
+        }
+
+        String nextHeaderField() {
+            nextField();
+            return decodeString();
+        }
+
+        // vraća null za prazan redak
+        BeerCsvRow nextRow() {
+
+            if (buffer.get(position) == '\n' || (buffer.get(position) == '\r' && position + 1 < limit && buffer.get(position + 1) == '\n')) {
+                position += buffer.get(position) == '\n' ? 1 : 2;
+                return null;
+            }
+
+            resetRow();
+
+            int column = 0;
+
+            do {
+                nextField();
+
+                Column target = column < columns.length ? columns[column] : Column.IGNORED;
+
+                switch (target) {
+                    case ROW -> row = parseInt();
+                    case COUNT -> count = parseInt();
+                    case ABV -> abv = parseDouble();
+                    case IBU -> ibu = parseInt();
+                    case ID -> id = parseInt();
+                    case BEER -> beer = decodeString();
+                    case STYLE -> style = decodeString();
+                    case BREWERY_ID -> breweryId = parseInt();
+                    case OUNCES -> ounces = (float) parseDouble();
+                    case STYLE2 -> style2 = decodeString();
+                    case COUNT_Y -> countY = parseInt();
+                    case CITY -> city = decodeString();
+                    case STATE -> state = decodeString();
+                    case LABEL -> label = decodeString();
+                    case IGNORED -> { }
+                }
+
+                column++;
+            } while (!endOfRecord);
+
+            return new BeerCsvRow(row, count, abv, ibu, id, beer, style, breweryId, ounces, style2, countY, city, state, label);
+        }
+
+        private void resetRow() {
+            row = count = ibu = id = breweryId = countY = BeerCsvRow.NA;
+            abv = Double.NaN;
+            ounces = Float.NaN;
+            beer = style = style2 = city = state = label = null;
+        }
+
+        // postavi fieldStart/fieldEnd na sadržaj idućeg polja (bez navodnika) i pomakne position iza separatora
+        private void nextField() {
+
+            int i = position;
+            fieldEscaped = false;
+
+            if (i < limit && buffer.get(i) == '"') {
+                fieldStart = ++i;
+
+                while (i < limit) {
+                    if (buffer.get(i) == '"') {
+                        if (i + 1 < limit && buffer.get(i + 1) == '"') {
+                            fieldEscaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+
+                fieldEnd = i;
+
+                // preskoči zatvarajući navodnik i eventualni višak do separatora
+                while (i < limit && buffer.get(i) != ',' && buffer.get(i) != '\n') {
+                    i++;
+                }
+            } else {
+                fieldStart = i;
+
+                while (i < limit && buffer.get(i) != ',' && buffer.get(i) != '\n') {
+                    i++;
+                }
+
+                fieldEnd = i > fieldStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+            }
+
+            endOfRecord = i >= limit || buffer.get(i) == '\n';
+            position = i + 1;
+        }
+
+        private boolean isNa() {
+            int length = fieldEnd - fieldStart;
+
+            return length == 0
+                    || (length == 2 && buffer.get(fieldStart) == 'N' && buffer.get(fieldStart + 1) == 'A');
+        }
+
+        private int parseInt() {
+
+            if (isNa()) {
+                return BeerCsvRow.NA;
+            }
+
+            int i = fieldStart;
+            boolean negative = buffer.get(i) == '-';
+
+            if (negative || buffer.get(i) == '+') {
+                i++;
+            }
+
+            if (i == fieldEnd || fieldEnd - i > 9) {
+                return Integer.parseInt(decodeString());  // prazan predznak ili možda izvan int raspona - neka odluči JDK
+            }
+
+            int value = 0;
+
+            for (; i < fieldEnd; i++) {
+                int digit = buffer.get(i) - '0';
+
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("Invalid integer in CSV: " + decodeString());
+                }
+
+                value = value * 10 + digit;
+            }
+
+            return negative ? -value : value;
+        }
+
+        private double parseDouble() {
+
+            if (isNa()) {
+                return Double.NaN;
+            }
+
+            int i = fieldStart;
+            boolean negative = buffer.get(i) == '-';
+
+            if (negative || buffer.get(i) == '+') {
+                i++;
+            }
+
+            long mantissa = 0;
+            int digits = 0;
+            int scale = -1;     // broj znamenki iza decimalne točke, -1 dok je nismo vidjeli
+
+            for (; i < fieldEnd; i++) {
+                byte b = buffer.get(i);
+
+                if (b == '.' && scale < 0) {
+                    scale = 0;
+                    continue;
+                }
+
+                int digit = b - '0';
+
+                if (digit < 0 || digit > 9) {
+                    return Double.parseDouble(decodeString());  // eksponent, Infinity... rijetko, neka riješi JDK
+                }
+
+                if (mantissa != 0 || digit != 0) {
+                    digits++;
+                }
+
+                mantissa = mantissa * 10 + digit;
+
+                if (scale >= 0) {
+                    scale++;
+                }
+            }
+
+            if (scale < 0) {
+                scale = 0;
+            }
+
+            if (digits > MAX_EXACT_DIGITS || scale >= POWERS_OF_TEN.length) {
+                return Double.parseDouble(decodeString());
+            }
+
+            double value = mantissa / POWERS_OF_TEN[scale];
+
+            return negative ? -value : value;
+        }
+
+        private String decodeString() {
+
+            int length = fieldEnd - fieldStart;
+
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+
+            if (!fieldEscaped) {
+                buffer.get(fieldStart, scratch, 0, length);
+                return new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+
+            int written = 0;
+
+            for (int i = fieldStart; i < fieldEnd; i++) {
+                byte b = buffer.get(i);
+                scratch[written++] = b;
+
+                if (b == '"') {
+                    i++;    // "" -> "
+                }
+            }
+
+            return new String(scratch, 0, written, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,12 +1,31 @@
 package guru.springframework.spring6restmvc.services;
 
 import guru.springframework.spring6restmvc.model.BeerCSVRecord;
+import guru.springframework.spring6restmvc.model.BeerCsvRow;
 
 import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface BeerCsvService {
 
     List<BeerCSVRecord> convertCSV(File csvFile);
 
+    // streaming varijante - zapisi se parsiraju tek kad ih pozivatelj zatraži, pa se cijeli file nikad ne drži u memoriji.
+    // Vraćeni Stream drži otvoren file, obavezno ga zatvoriti (try-with-resources)
+
+    Stream<BeerCSVRecord> streamCSV(InputStream inputStream);
+
+    Stream<BeerCSVRecord> streamCSV(Path csvFile);
+
+    // svaki zapis preda consumer-u, vraća broj obrađenih zapisa
+    long convertCSV(InputStream inputStream, Consumer<BeerCSVRecord> consumer);
+
+    // brzi parser bez opencsv-a: mapira file u memoriju i parsira ga paralelno, u retke s primitivnim poljima.
+    // Quoted polja ne smiju sadržavati novi red
+    List<BeerCsvRow> convertCSVParallel(Path csvFile);
+
 }
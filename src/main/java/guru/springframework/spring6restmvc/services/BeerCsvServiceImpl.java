@@ -1,28 +1,92 @@
 package guru.springframework.spring6restmvc.services;
 
+import com.opencsv.bean.CsvToBean;
 import com.opencsv.bean.CsvToBeanBuilder;
 import guru.springframework.spring6restmvc.model.BeerCSVRecord;
+import guru.springframework.spring6restmvc.model.BeerCsvRow;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class BeerCsvServiceImpl implements BeerCsvService {
+
+    // veliki buffer - kod multi-GB datoteka manje sistemskih poziva za čitanje
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
     @Override
 
     public List<BeerCSVRecord> convertCSV(File csvFile) {
 
-        try {
-            List<BeerCSVRecord> beerCSVRecords = new CsvToBeanBuilder<BeerCSVRecord>(new FileReader(csvFile))
+        // UTF-8 eksplicitno, kao i convertCSV(InputStream) i BeerCsvParallelParser - ne ovisi o default charset-u platforme
+        try (Reader reader = new FileReader(csvFile, StandardCharsets.UTF_8)) {
+            List<BeerCSVRecord> beerCSVRecords = new CsvToBeanBuilder<BeerCSVRecord>(reader)
                     .withType(BeerCSVRecord.class)
                     .build().parse();
 
             return beerCSVRecords;
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public Stream<BeerCSVRecord> streamCSV(InputStream inputStream) {
+
+        Reader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+
+        CsvToBean<BeerCSVRecord> csvToBean = new CsvToBeanBuilder<BeerCSVRecord>(reader)
+                .withType(BeerCSVRecord.class)
+                .build();
+
+        // za razliku od parse(), iterator() čita i mapira jedan redak po jedan redak
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(csvToBean.iterator(),
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @Override
+    public Stream<BeerCSVRecord> streamCSV(Path csvFile) {
+
+        try {
+            return streamCSV(Files.newInputStream(csvFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long convertCSV(InputStream inputStream, Consumer<BeerCSVRecord> consumer) {
+
+        long count = 0;
+
+        try (Stream<BeerCSVRecord> records = streamCSV(inputStream)) {
+            for (BeerCSVRecord record : (Iterable<BeerCSVRecord>) records::iterator) {
+                consumer.accept(record);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public List<BeerCsvRow> convertCSVParallel(Path csvFile) {
+        return BeerCsvParallelParser.parse(csvFile);
+    }
 }
@@ -0,0 +1,47 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Kodira/dekodira neprozirni cursor za keyset paginaciju piva. Cursor je zapravo (id, beerName) zadnjeg
+ * piva na stranici, zapakiran u URL-safe Base64 da ga klijent ne pokušava sam slagati.
+ */
+public final class BeerCursorCodec {
+
+    private static final char SEPARATOR = ':';
+    private static final int UUID_LENGTH = 36;
+
+    private BeerCursorCodec() {
+    }
+
+    public record Position(String beerName, UUID id) {
+    }
+
+    public static String encode(String beerName, UUID id) {
+
+        // id ide prvi jer ima fiksnu duljinu, pa beerName smije sadržavati i separator
+        String raw = id.toString() + SEPARATOR + beerName;
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Position decode(String cursor) {
+
+        String raw;
+
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+
+        if (raw.length() <= UUID_LENGTH || raw.charAt(UUID_LENGTH) != SEPARATOR) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        // UUID.fromString baca IllegalArgumentException za neispravan id
+        return new Position(raw.substring(UUID_LENGTH + 1), UUID.fromString(raw.substring(0, UUID_LENGTH)));
+    }
+}
@@ -0,0 +1,16 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.model.BeerImportJobDTO;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BeerImportService {
+
+    // pokreće import u pozadini i odmah vraća job; csvFile se briše kad import završi
+    BeerImportJobDTO startImport(String fileName, Path csvFile);
+
+    Optional<BeerImportJobDTO> getImportJob(UUID jobId);
+
+}
@@ -0,0 +1,272 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.config.BeerImportConfig;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.mappers.BeerCsvRecordConverter;
+import guru.springframework.spring6restmvc.model.BeerCSVRecord;
+import guru.springframework.spring6restmvc.model.BeerImportJobDTO;
+import guru.springframework.spring6restmvc.model.BeerImportStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * CSV import piva na pozadinskom executoru. Datoteka se čita kao stream (BeerCsvService.streamCSV) i snima
+ * u komadima od app.beer.import.chunk-size redaka, svaki u svojoj transakciji, a napredak se prati u memoriji
+ * po jobId-u. Neispravan redak se samo broji i preskače, a greška u samom CSV-u prekida import (FAILED) -
+ * komadi snimljeni do tada ostaju u bazi.
+ */
+@Slf4j
+@Service
+public class BeerImportServiceImpl implements BeerImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final BeerCsvService beerCsvService;
+    private final BeerCsvRecordConverter beerCsvRecordConverter;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final BeerCountCache beerCountCache;
+    private final BeerNameIndex beerNameIndex;
+    private final TaskExecutor beerImportExecutor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.beer.import.chunk-size:500}")
+    private int chunkSize;
+
+    // koliko dugo se završeni job-ovi još mogu dohvatiti preko GET-a
+    @Value("${app.beer.import.job-retention:PT1H}")
+    private Duration jobRetention;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public BeerImportServiceImpl(BeerCsvService beerCsvService,
+                                 BeerCsvRecordConverter beerCsvRecordConverter,
+                                 Validator validator,
+                                 TransactionTemplate transactionTemplate,
+                                 BeerCountCache beerCountCache,
+                                 BeerNameIndex beerNameIndex,
+                                 @Qualifier(BeerImportConfig.BEER_IMPORT_EXECUTOR) TaskExecutor beerImportExecutor) {
+        this.beerCsvService = beerCsvService;
+        this.beerCsvRecordConverter = beerCsvRecordConverter;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.beerCountCache = beerCountCache;
+        this.beerNameIndex = beerNameIndex;
+        this.beerImportExecutor = beerImportExecutor;
+    }
+
+    @Override
+    public BeerImportJobDTO startImport(String fileName, Path csvFile) {
+
+        removeExpiredJobs();
+
+        ImportJob job = new ImportJob(UUID.randomUUID(), fileName);
+        jobs.put(job.id, job);
+
+        try {
+            beerImportExecutor.execute(() -> runImport(job, csvFile));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            deleteCsvFile(csvFile);
+            throw e;
+        }
+
+        return job.toDto();
+    }
+
+    @Override
+    public Optional<BeerImportJobDTO> getImportJob(UUID jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(ImportJob::toDto);
+    }
+
+    private void runImport(ImportJob job, Path csvFile) {
+
+        job.start();
+
+        try (Stream<BeerCSVRecord> records = beerCsvService.streamCSV(csvFile)) {
+
+            Iterator<BeerCSVRecord> iterator = records.iterator();
+
+            while (iterator.hasNext()) {
+
+                List<BeerCSVRecord> chunk = new ArrayList<>(chunkSize);
+
+                while (iterator.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(iterator.next());
+                }
+
+                List<Beer> savedBeers = transactionTemplate.execute(status -> saveChunk(job, chunk));
+
+                // nova piva mijenjaju ukupne brojeve za listanje, a in-memory indeks (ako je izgrađen) ih mora vidjeti
+                beerCountCache.invalidateAll();
+
+                if (beerNameIndex.isReady() && savedBeers != null) {
+                    savedBeers.forEach(beer -> beerNameIndex.upsert(beer.getId(), beer.getBeerName(), beer.getBeerStyle()));
+                }
+            }
+
+            job.finish(BeerImportStatus.COMPLETED, null);
+
+            log.info("Beer import {} ({}) completed: {} rows, {} imported, {} errors, {} rows/s",
+                    job.id, job.fileName, job.rowsProcessed.get(), job.rowsImported.get(), job.errorCount.get(), job.rowsPerSecond());
+        } catch (RuntimeException e) {
+            job.finish(BeerImportStatus.FAILED, e.getMessage());
+
+            log.error("Beer import {} ({}) failed after {} rows", job.id, job.fileName, job.rowsProcessed.get(), e);
+        } finally {
+            deleteCsvFile(csvFile);
+        }
+    }
+
+    private List<Beer> saveChunk(ImportJob job, List<BeerCSVRecord> chunk) {
+
+        List<Beer> savedBeers = new ArrayList<>(chunk.size());
+
+        for (BeerCSVRecord record : chunk) {
+
+            long rowNumber = job.rowsProcessed.incrementAndGet();
+
+            try {
+                Beer beer = beerCsvRecordConverter.convert(record);
+
+                // validiramo prije persist-a, da jedan neispravan redak ne sruši flush cijelog komada
+                Set<ConstraintViolation<Beer>> violations = validator.validate(beer);
+
+                if (!violations.isEmpty()) {
+                    job.addError(rowNumber, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                            .collect(Collectors.joining(", ")));
+                    continue;
+                }
+
+                entityManager.persist(beer);
+                savedBeers.add(beer);
+            } catch (RuntimeException e) {
+                job.addError(rowNumber, e.getMessage());
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        job.rowsImported.addAndGet(savedBeers.size());
+
+        return savedBeers;
+    }
+
+    private void removeExpiredJobs() {
+
+        long now = System.nanoTime();
+
+        jobs.values().removeIf(job -> job.finishedNanos != 0 && now - job.finishedNanos > jobRetention.toNanos());
+    }
+
+    private void deleteCsvFile(Path csvFile) {
+        try {
+            Files.deleteIfExists(csvFile);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", csvFile, e);
+        }
+    }
+
+    private static class ImportJob {
+
+        private final UUID id;
+        private final String fileName;
+        private final LocalDateTime createdDate = LocalDateTime.now();
+
+        private final AtomicLong rowsProcessed = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong errorCount = new AtomicLong();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile BeerImportStatus status = BeerImportStatus.QUEUED;
+        private volatile String failureMessage;
+        private volatile LocalDateTime startedDate;
+        private volatile LocalDateTime finishedDate;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+
+        ImportJob(UUID id, String fileName) {
+            this.id = id;
+            this.fileName = fileName;
+        }
+
+        void start() {
+            startedNanos = System.nanoTime();
+            startedDate = LocalDateTime.now();
+            status = BeerImportStatus.RUNNING;
+        }
+
+        void finish(BeerImportStatus finalStatus, String message) {
+            finishedNanos = System.nanoTime();
+            finishedDate = LocalDateTime.now();
+            failureMessage = message;
+            status = finalStatus;
+        }
+
+        void addError(long rowNumber, String message) {
+            if (errorCount.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                errors.add("row " + rowNumber + ": " + message);
+            }
+        }
+
+        long rowsPerSecond() {
+
+            if (startedNanos == 0) {
+                return 0;
+            }
+
+            long elapsedNanos = (finishedNanos != 0 ? finishedNanos : System.nanoTime()) - startedNanos;
+
+            return elapsedNanos == 0 ? 0 : rowsProcessed.get() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        BeerImportJobDTO toDto() {
+
+            List<String> reportedErrors;
+
+            synchronized (errors) {
+                reportedErrors = List.copyOf(errors);
+            }
+
+            return BeerImportJobDTO.builder()
+                    .id(id)
+                    .fileName(fileName)
+                    .status(status)
+                    .rowsProcessed(rowsProcessed.get())
+                    .rowsImported(rowsImported.get())
+                    .errorCount(errorCount.get())
+                    .rowsPerSecond(rowsPerSecond())
+                    .errors(reportedErrors)
+                    .failureMessage(failureMessage)
+                    .createdDate(createdDate)
+                    .startedDate(startedDate)
+                    .finishedDate(finishedDate)
+                    .build();
+        }
+    }
+}
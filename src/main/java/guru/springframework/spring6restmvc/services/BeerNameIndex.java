@@ -0,0 +1,267 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory invertirani trigram indeks nad Beer.beerName, sa BeerStyle kao facetom.
+ * Koristi se kad je app.beer.search.mode=MEMORY: pretraga po dijelu imena i/ili stilu se odradi ovdje,
+ * a iz baze se onda dohvaćaju samo piva za traženu stranicu (po id-u).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BeerNameIndex {
+
+    private static final int GRAM_SIZE = 3;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final Comparator<IndexEntry> NAME_ORDER = Comparator
+            .comparing(IndexEntry::beerName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(IndexEntry::id);
+
+    private final BeerRepository beerRepository;
+
+    @Value("${app.beer.search.mode:LIKE}")
+    private BeerSearchMode searchMode;
+
+    private final Map<UUID, IndexEntry> entries = new HashMap<>();
+    private final Map<String, Set<UUID>> trigrams = new HashMap<>();
+
+    // svi zapisi i facet po stilu drže se već sortirani po imenu, pa pretraga bez imena samo preskoči offset
+    private final NavigableSet<IndexEntry> byName = new TreeSet<>(NAME_ORDER);
+    private final Map<BeerStyle, NavigableSet<IndexEntry>> styles = new EnumMap<>(BeerStyle.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    record IndexEntry(UUID id, String beerName, String lowerCaseName, BeerStyle beerStyle) {
+    }
+
+    public record SearchResult(List<UUID> ids, long total) {
+    }
+
+    // ApplicationReadyEvent dolazi nakon CommandLineRunner-a (BootstrapData), pa su piva već u bazi
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (searchMode == BeerSearchMode.MEMORY) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+
+        long start = System.currentTimeMillis();
+
+        lock.writeLock().lock();
+        try {
+            clear();
+
+            // učitavamo u komadima da ne držimo cijelu tablicu kao entitete u memoriji
+            PageRequest pageRequest = PageRequest.of(0, LOAD_BATCH_SIZE, Sort.by("id"));
+            Slice<Beer> slice;
+
+            do {
+                slice = beerRepository.findSliceOfAllBeers(pageRequest);
+                slice.forEach(beer -> add(beer.getId(), beer.getBeerName(), beer.getBeerStyle()));
+                pageRequest = pageRequest.next();
+            } while (slice.hasNext());
+
+            ready = true;
+
+            log.info("Beer name index built with {} beers and {} trigrams in {} ms",
+                    entries.size(), trigrams.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void upsert(UUID id, String beerName, BeerStyle beerStyle) {
+
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            add(id, beerName, beerStyle);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(UUID id) {
+
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vraća id-eve piva za traženu stranicu (sortirano po imenu pa id-u) i ukupan broj pogodaka.
+     */
+    public SearchResult search(String beerName, BeerStyle beerStyle, long offset, int limit) {
+
+        lock.readLock().lock();
+        try {
+            NavigableSet<IndexEntry> sorted = beerStyle == null
+                    ? byName
+                    : styles.getOrDefault(beerStyle, Collections.emptyNavigableSet());
+
+            if (!StringUtils.hasText(beerName)) {
+                return new SearchResult(page(sorted.stream(), offset, limit), sorted.size());
+            }
+
+            String query = beerName.toLowerCase(Locale.ROOT);
+
+            // top-k umjesto sortiranja svih pogodaka: heap drži najviše offset + limit zapisa, na vrhu je "najveći"
+            int pageEnd = (int) Math.min(offset + limit, Integer.MAX_VALUE);
+            PriorityQueue<IndexEntry> top = new PriorityQueue<>(NAME_ORDER.reversed());
+            long total = 0;
+
+            for (IndexEntry entry : candidates(query, sorted)) {
+
+                if (!entry.lowerCaseName().contains(query) || (beerStyle != null && entry.beerStyle() != beerStyle)) {
+                    continue;
+                }
+
+                total++;
+
+                if (top.size() < pageEnd) {
+                    top.add(entry);
+                } else if (pageEnd > 0 && NAME_ORDER.compare(entry, top.peek()) < 0) {
+                    top.poll();
+                    top.add(entry);
+                }
+            }
+
+            return new SearchResult(page(top.stream().sorted(NAME_ORDER), offset, limit), total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<UUID> page(Stream<IndexEntry> sortedEntries, long offset, int limit) {
+        return sortedEntries
+                .skip(offset)
+                .limit(limit)
+                .map(IndexEntry::id)
+                .toList();
+    }
+
+    // najmanji skup kandidata: najkraća posting lista od svih trigrama upita, ili svi zapisi traženog stila
+    private Iterable<IndexEntry> candidates(String query, Collection<IndexEntry> byStyle) {
+
+        Set<UUID> smallestPosting = null;
+        int smallestSize = byStyle.size();
+
+        if (query.length() >= GRAM_SIZE) {
+            for (String gram : grams(query)) {
+                Set<UUID> posting = trigrams.getOrDefault(gram, Set.of());
+
+                if (posting.size() < smallestSize) {
+                    smallestPosting = posting;
+                    smallestSize = posting.size();
+                }
+            }
+        }
+
+        if (smallestPosting == null) {
+            return byStyle;
+        }
+
+        Set<UUID> posting = smallestPosting;
+
+        return () -> posting.stream().map(entries::get).iterator();
+    }
+
+    private void add(UUID id, String beerName, BeerStyle beerStyle) {
+
+        if (id == null || beerName == null) {
+            return;
+        }
+
+        IndexEntry entry = new IndexEntry(id, beerName, beerName.toLowerCase(Locale.ROOT), beerStyle);
+        entries.put(id, entry);
+        byName.add(entry);
+
+        for (String gram : grams(entry.lowerCaseName())) {
+            trigrams.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+
+        if (beerStyle != null) {
+            styles.computeIfAbsent(beerStyle, key -> new TreeSet<>(NAME_ORDER)).add(entry);
+        }
+    }
+
+    private void remove(UUID id) {
+
+        IndexEntry entry = entries.remove(id);
+
+        if (entry == null) {
+            return;
+        }
+
+        byName.remove(entry);
+
+        for (String gram : grams(entry.lowerCaseName())) {
+            Set<UUID> posting = trigrams.get(gram);
+
+            if (posting != null) {
+                posting.remove(id);
+
+                if (posting.isEmpty()) {
+                    trigrams.remove(gram);
+                }
+            }
+        }
+
+        if (entry.beerStyle() != null) {
+            NavigableSet<IndexEntry> style = styles.get(entry.beerStyle());
+
+            if (style != null) {
+                style.remove(entry);
+            }
+        }
+    }
+
+    private void clear() {
+        entries.clear();
+        trigrams.clear();
+        byName.clear();
+        styles.clear();
+        ready = false;
+    }
+
+    private static Set<String> grams(String text) {
+
+        Set<String> grams = new HashSet<>();
+
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_SIZE));
+        }
+
+        return grams;
+    }
+}
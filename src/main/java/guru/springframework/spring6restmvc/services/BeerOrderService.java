@@ -0,0 +1,16 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import guru.springframework.spring6restmvc.model.BeerOrderDTO;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BeerOrderService {
+
+    // snima narudžbu sa stavkama i alocira zalihu (Beer.quantityOnHand) za svaku stavku
+    BeerOrderDTO createOrder(BeerOrderCreateDTO beerOrder);
+
+    Optional<BeerOrderDTO> getOrderById(UUID beerOrderId);
+
+}
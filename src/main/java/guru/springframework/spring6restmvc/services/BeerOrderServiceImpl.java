@@ -0,0 +1,122 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.controller.BadRequestException;
+import guru.springframework.spring6restmvc.entities.BeerOrder;
+import guru.springframework.spring6restmvc.entities.BeerOrderLine;
+import guru.springframework.spring6restmvc.mappers.BeerOrderMapper;
+import guru.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import guru.springframework.spring6restmvc.model.BeerOrderDTO;
+import guru.springframework.spring6restmvc.model.BeerOrderLineCreateDTO;
+import guru.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvc.repositories.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Narudžba i sve njene stavke snimaju se u jednoj transakciji. Zalihu alocira InventoryAllocator - uvjetnim
+ * UPDATE-om u bazi (default) ili rezervacijom u memoriji - u oba slučaja bez read-modify-write ciklusa, pa nema ni
+ * izgubljenih update-a kad više narudžbi istovremeno uzima isto pivo.
+ * <p>
+ * Protiv deadlock-a: stavke se alociraju uvijek istim redoslijedom (sortirano po beerId), i to prije INSERT-a
+ * narudžbe i stavki - INSERT stavke uzima shared lock na red u beer tablici (FK), a taj red tada već držimo.
+ * Ako baza ipak prekine transakciju (deadlock ili lock wait timeout), cijela narudžba se ponovi.
+ * <p>
+ * Kupac se narudžbi postavlja samo kao referenca (FK), bez učitavanja kupca i njegove kolekcije narudžbi.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BeerOrderServiceImpl implements BeerOrderService {
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private final BeerOrderRepository beerOrderRepository;
+    private final BeerRepository beerRepository;
+    private final CustomerRepository customerRepository;
+    private final BeerOrderMapper beerOrderMapper;
+    private final InventoryAllocator inventoryAllocator;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public BeerOrderDTO createOrder(BeerOrderCreateDTO beerOrder) {
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> placeOrder(beerOrder));
+            } catch (ConcurrencyFailureException e) {
+                if (!isLockConflict(e) || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Beer order for customer {} rolled back on lock conflict, attempt {} of {}",
+                        beerOrder.getCustomerId(), attempt, MAX_ATTEMPTS);
+            }
+        }
+    }
+
+    // deadlock/pessimistic lock (PessimisticLockingFailureException) i lock wait timeout (CannotAcquireLockException)
+    // - eksplicitno oba, ovisno o bazi i verziji Springa timeout ne dođe uvijek kao podklasa prvog
+    private static boolean isLockConflict(ConcurrencyFailureException e) {
+        return e instanceof PessimisticLockingFailureException || e instanceof CannotAcquireLockException;
+    }
+
+    private BeerOrderDTO placeOrder(BeerOrderCreateDTO beerOrderCreate) {
+
+        if (!customerRepository.existsById(beerOrderCreate.getCustomerId())) {
+            throw new BadRequestException("Customer " + beerOrderCreate.getCustomerId() + " not found");
+        }
+
+        List<BeerOrderLineCreateDTO> lines = beerOrderCreate.getBeerOrderLines();
+
+        // sva piva iz narudžbe provjeravamo jednim upitom
+        Set<UUID> beerIds = lines.stream().map(BeerOrderLineCreateDTO::getBeerId).collect(Collectors.toSet());
+        Set<UUID> existingBeerIds = beerRepository.findExistingIds(beerIds);
+
+        if (existingBeerIds.size() != beerIds.size()) {
+            beerIds.removeAll(existingBeerIds);
+            throw new BadRequestException("Unknown beers " + beerIds);
+        }
+
+        // builder/all-args constructor ovdje ne možemo, setBeerOrderShipment ne prima null
+        BeerOrder beerOrder = new BeerOrder();
+        beerOrder.setCustomerRef(beerOrderCreate.getCustomerRef());
+        beerOrder.setCustomerReference(customerRepository.getReferenceById(beerOrderCreate.getCustomerId()));
+        beerOrder.setBeerOrderLines(new LinkedHashSet<>());
+
+        lines.forEach(line -> beerOrder.getBeerOrderLines().add(BeerOrderLine.builder()
+                .beerOrder(beerOrder)
+                .beer(beerRepository.getReferenceById(line.getBeerId()))
+                .orderQuantity(line.getOrderQuantity())
+                .build()));
+
+        // alokacija po stavci: ili cijela naručena količina ili ništa. Ide prije persist-a narudžbe, jer bulk UPDATE
+        // ionako radi auto-flush persistence contexta, a tako su i lock-ovi uzeti u zadanom redoslijedu
+        beerOrder.getBeerOrderLines().stream()
+                .sorted(Comparator.comparing(line -> line.getBeer().getId()))
+                .forEach(inventoryAllocator::allocate);
+
+        // narudžba + stavke (cascade PERSIST) odlaze jednim flush-em, stavke u JDBC batch-u (hibernate.jdbc.batch_size).
+        // Flush odmah, a ne na commit-u, da DTO dobije createdDate i da eventualni lock konflikt pukne unutar retry-a
+        BeerOrder savedOrder = beerOrderRepository.saveAndFlush(beerOrder);
+
+        log.debug("Saved beer order {} with {} lines", savedOrder.getId(), lines.size());
+
+        return beerOrderMapper.beerOrderToBeerOrderDto(savedOrder);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<BeerOrderDTO> getOrderById(UUID beerOrderId) {
+        return beerOrderRepository.findWithLinesById(beerOrderId)
+                .map(beerOrderMapper::beerOrderToBeerOrderDto);
+    }
+}
@@ -0,0 +1,16 @@
+package guru.springframework.spring6restmvc.services;
+
+/**
+ * Način pretrage piva po imenu, podešava se preko app.beer.search.mode.
+ */
+public enum BeerSearchMode {
+
+    // lower(beer_name) like lower('%name%') - radi na svakoj bazi (i H2), ali je full table scan
+    LIKE,
+
+    // MySQL FULLTEXT (ngram) indeks iz V7 migracije
+    FULLTEXT,
+
+    // in-memory trigram indeks (BeerNameIndex), baza se koristi samo za dohvat piva po id-u
+    MEMORY
+}
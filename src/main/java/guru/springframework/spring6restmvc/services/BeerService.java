@@ -1,17 +1,31 @@
 package guru.springframework.spring6restmvc.services;
 
+import guru.springframework.spring6restmvc.model.BeerBatchResultDTO;
+import guru.springframework.spring6restmvc.model.BeerCursorPageDTO;
 import guru.springframework.spring6restmvc.model.BeerDTO;
 import guru.springframework.spring6restmvc.model.BeerStyle;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 
 public interface BeerService {
 
     Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize);
 
+    // isto kao listBeers, ali bez ukupnog broja zapisa (nema COUNT upita) - dovoljno za "ima li iduća stranica"
+    Slice<BeerDTO> listBeersSlice(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize);
+
+    // keyset paginacija - position je null za prvu stranicu, inače dekodirani nextCursor iz prethodnog odgovora
+    BeerCursorPageDTO listBeersByCursor(String beerName, BeerStyle beerStyle, Boolean showInventory, BeerCursorCodec.Position position, Integer pageSize);
+
+    // svi zapisi koji odgovaraju filterima, jedan po jedan redom kako dolaze iz baze (sortirano po imenu) - bez stranica
+    void streamBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Consumer<BeerDTO> consumer);
+
     Optional<BeerDTO> getBeerById(UUID id);
 
     BeerDTO saveNewBeer(BeerDTO beer);
@@ -20,5 +34,9 @@ public interface BeerService {
 
     Boolean deleteBeerById(UUID beerID);
 
-    Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer);
+    // mijenja samo poslana polja; false ako pivo ne postoji
+    Boolean patchBeerById(UUID beerId, BeerDTO beer);
+
+    // bulk create/update - piva bez id-a se kreiraju, ona sa id-em se update-aju; rezultat je po jedan zapis za svaki ulazni element
+    List<BeerBatchResultDTO> saveBeersInBatch(List<BeerDTO> beers);
 }
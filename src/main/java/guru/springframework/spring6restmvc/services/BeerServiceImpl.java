@@ -1,16 +1,22 @@
 package guru.springframework.spring6restmvc.services;
 
+import guru.springframework.spring6restmvc.model.BeerBatchResultDTO;
+import guru.springframework.spring6restmvc.model.BeerBatchStatus;
+import guru.springframework.spring6restmvc.model.BeerCursorPageDTO;
 import guru.springframework.spring6restmvc.model.BeerDTO;
 import guru.springframework.spring6restmvc.model.BeerStyle;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -70,6 +76,42 @@ public class BeerServiceImpl implements BeerService {
     }
 
 
+    @Override
+    public Slice<BeerDTO> listBeersSlice(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
+
+        log.debug(" listBeersSlice - in service was called. ");
+        return new SliceImpl<>(new ArrayList<>(beerMap.values()));
+    }
+
+    @Override
+    public BeerCursorPageDTO listBeersByCursor(String beerName, BeerStyle beerStyle, Boolean showInventory, BeerCursorCodec.Position position, Integer pageSize) {
+
+        log.debug(" listBeersByCursor - in service was called. ");
+
+        // in-memory varijanta nema filtere ni stranice, vraća sve odjednom kao i listBeers
+        List<BeerDTO> beers = beerMap.values().stream()
+                .sorted(Comparator.comparing(BeerDTO::getBeerName).thenComparing(BeerDTO::getId))
+                .toList();
+
+        return BeerCursorPageDTO.builder()
+                .content(beers)
+                .size(beers.size())
+                .hasNext(false)
+                .build();
+    }
+
+    @Override
+    public void streamBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Consumer<BeerDTO> consumer) {
+
+        log.debug(" streamBeers - in service was called. ");
+
+        beerMap.values().stream()
+                .filter(beer -> !StringUtils.hasText(beerName)
+                        || beer.getBeerName().toLowerCase(Locale.ROOT).contains(beerName.toLowerCase(Locale.ROOT)))
+                .filter(beer -> beerStyle == null || beer.getBeerStyle() == beerStyle)
+                .sorted(Comparator.comparing(BeerDTO::getBeerName).thenComparing(BeerDTO::getId))
+                .forEach(consumer);
+    }
 
     @Override
     public Optional<BeerDTO> getBeerById(UUID id) {
@@ -141,10 +183,14 @@ public class BeerServiceImpl implements BeerService {
     }
 
     @Override
-    public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer) {
+    public Boolean patchBeerById(UUID beerId, BeerDTO beer) {
 
         BeerDTO existingBeer = beerMap.get(beerId);
 
+        if (existingBeer == null) {
+            return false;
+        }
+
         if(StringUtils.hasText(beer.getBeerName())) {
             existingBeer.setBeerName(beer.getBeerName());
         }
@@ -165,6 +211,30 @@ public class BeerServiceImpl implements BeerService {
             existingBeer.setUpc(beer.getUpc());
         }
 
-        return Optional.of(existingBeer);
+        return true;
+    }
+
+    @Override
+    public List<BeerBatchResultDTO> saveBeersInBatch(List<BeerDTO> beers) {
+
+        List<BeerBatchResultDTO> results = new ArrayList<>();
+
+        for (int i = 0; i < beers.size(); i++) {
+            BeerDTO beer = beers.get(i);
+
+            if (beer.getId() == null) {
+                results.add(BeerBatchResultDTO.builder().index(i).id(saveNewBeer(beer).getId())
+                        .status(BeerBatchStatus.CREATED).build());
+            } else if (beerMap.containsKey(beer.getId())) {
+                updateBeerById(beer.getId(), beer);
+                results.add(BeerBatchResultDTO.builder().index(i).id(beer.getId())
+                        .status(BeerBatchStatus.UPDATED).build());
+            } else {
+                results.add(BeerBatchResultDTO.builder().index(i).id(beer.getId())
+                        .status(BeerBatchStatus.NOT_FOUND).build());
+            }
+        }
+
+        return results;
     }
 }
@@ -1,22 +1,55 @@
 package guru.springframework.spring6restmvc.services;
 
+import guru.springframework.spring6restmvc.config.CacheConfig;
 import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvc.mappers.BeerMapper;
+import guru.springframework.spring6restmvc.model.BeerBatchResultDTO;
+import guru.springframework.spring6restmvc.model.BeerBatchStatus;
+import guru.springframework.spring6restmvc.model.BeerCursorPageDTO;
 import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerProjection;
 import guru.springframework.spring6restmvc.model.BeerStyle;
 import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaUpdate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
-import java.util.Optional;
-import java.util.UUID;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Primary //obzirom da je ovo 2. implementacija iste klase BeerService, jedna mora biti @Primary, obzirom da su obje na Classpath-u. Na ovaj način ova klasa dobiva prednost nad onom
@@ -26,54 +59,256 @@ public class BeerServiceJPA implements BeerService {
 
     private final BeerRepository beerRepository;
     private final BeerMapper beerMapper;
+    private final BeerCountCache beerCountCache;
+    private final BeerNameIndex beerNameIndex;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final InventoryAllocator inventoryAllocator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // koliko piva iz bulk zahtjeva ide u jednu transakciju; unutar nje Hibernate šalje INSERT/UPDATE
+    // u JDBC batch-evima veličine hibernate.jdbc.batch_size
+    @Value("${app.beer.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    // mora odgovarati ngram_token_size postavci MySQL servera (default 2)
+    private static final int FULLTEXT_MIN_QUERY_LENGTH = 2;
+
+    @Value("${app.beer.search.mode:LIKE}")
+    private BeerSearchMode searchMode;
 
     private static final int DEFAULT_PAGE = 0;
     private static final int DEFAULT_PAGE_SIZE = 25;
 
 
+    // read-only transakcija: HibernateJpaDialect sesiji postavi FlushMode.MANUAL i defaultReadOnly (učitani entiteti
+    // nemaju snapshot za dirty checking), a JDBC konekcija dobije setReadOnly(true)
+    @Transactional(readOnly = true)
     @Override
     public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
 
-        Page<Beer> beerPage;
+        //uvodimo pageing, tako da već ograničimo listu u startu. U
+        PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
 
+        if (useBeerNameIndex(beerName, beerStyle)) {
+            return searchBeerNameIndex(beerName, beerStyle, pageRequest).map(beer -> beerToBeerDto(beer, showInventory));
+        }
+
+        Slice<BeerDTO> beerSlice = findBeerDtoSlice(beerName, beerStyle, showInventory, pageRequest);
+
+        // sadržaj stranice dolazi iz Slice upita (bez COUNT-a), a ukupan broj iz BeerCountCache.
+        // PageableExecutionUtils uopće ne traži total ako ga može izračunati iz sadržaja (npr. zadnja, nepotpuna stranica)
+        return PageableExecutionUtils.getPage(beerSlice.getContent(), pageRequest,
+                () -> beerCountCache.getCount(beerName, beerStyle, () -> countBeers(beerName, beerStyle)));
+
+        // return beerRepository
+        /* promijenili smo logiku da više metoda ne vraća List<>, nego Page<>
+
+        return beerList.stream()
+                .map(beerMapper::beerToBeerDTO)
+                .collect(Collectors.toList());  // vrati kao listu
+
+         */
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<BeerDTO> listBeersSlice(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize) {
 
-        //uvodimo pageing, tako da već ograničimo listu u startu. U
         PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
 
-        if (StringUtils.hasText(beerName) && beerStyle == null) {
+        // indeks ionako zna ukupan broj pogodaka, pa je njegov Page ujedno i Slice
+        if (useBeerNameIndex(beerName, beerStyle)) {
+            return searchBeerNameIndex(beerName, beerStyle, pageRequest).map(beer -> beerToBeerDto(beer, showInventory));
+        }
+
+        return findBeerDtoSlice(beerName, beerStyle, showInventory, pageRequest);
+    }
+
+    private boolean useBeerNameIndex(String beerName, BeerStyle beerStyle) {
+
+        return searchMode == BeerSearchMode.MEMORY
+                && beerNameIndex.isReady()
+                && (StringUtils.hasText(beerName) || beerStyle != null);
+    }
+
+    // filtriranje i sortiranje odradi indeks, iz baze dohvaćamo samo piva tražene stranice
+    private Page<Beer> searchBeerNameIndex(String beerName, BeerStyle beerStyle, PageRequest pageRequest) {
+
+        BeerNameIndex.SearchResult result = beerNameIndex.search(beerName, beerStyle,
+                pageRequest.getOffset(), pageRequest.getPageSize());
+
+        Map<UUID, Beer> beersById = beerRepository.findAllById(result.ids()).stream()
+                .collect(Collectors.toMap(Beer::getId, Function.identity()));
+
+        // findAllById ne garantira redoslijed, pa vraćamo poredak iz indeksa
+        List<Beer> beers = result.ids().stream()
+                .map(beersById::get)
+                .filter(Objects::nonNull)
+                .toList();
 
-            beerPage = listBeersByName(beerName, pageRequest);
+        return new PageImpl<>(beers, pageRequest, result.total());
+    }
+
+    private Slice<BeerDTO> findBeerDtoSlice(String beerName, BeerStyle beerStyle, Boolean showInventory, PageRequest pageRequest) {
+
+        if (useFullTextSearch(beerName)) {
+
+            // native upit ima vlastiti "order by", pa mu šaljemo samo page/size bez sorta.
+            // MATCH ... AGAINST nema u JPQL-u, pa ovdje i dalje čitamo entitete
+            PageRequest unsorted = PageRequest.of(pageRequest.getPageNumber(), pageRequest.getPageSize());
+
+            Slice<Beer> beerSlice = beerStyle == null
+                    ? beerRepository.findSliceByBeerNameFullText(toFullTextQuery(beerName), "%" + beerName + "%", unsorted)
+                    : beerRepository.findSliceByBeerNameFullTextAndBeerStyle(toFullTextQuery(beerName), "%" + beerName + "%",
+                            beerStyle.ordinal(), unsorted);
+
+            return beerSlice.map(beer -> beerToBeerDto(beer, showInventory));
+        }
+
+        String beerNamePattern = StringUtils.hasText(beerName) ? "%" + beerName + "%" : null;
+
+        // projekcije umjesto entiteta - nema persistence contexta ni dirty checkinga, a bez inventory-ja
+        // quantity_on_hand nije ni u SELECT-u
+        Slice<BeerProjection> projections = showInventory == null || showInventory
+                ? beerRepository.findBeerProjections(beerNamePattern, beerStyle, pageRequest)
+                : beerRepository.findBeerProjectionsWithoutInventory(beerNamePattern, beerStyle, pageRequest);
+
+        return projections.map(beerMapper::beerProjectionToBeerDto);
+    }
+
+    private long countBeers(String beerName, BeerStyle beerStyle) {
+
+        if (useFullTextSearch(beerName)) {
+            return beerStyle == null
+                    ? beerRepository.countByBeerNameFullText(toFullTextQuery(beerName), "%" + beerName + "%")
+                    : beerRepository.countByBeerNameFullTextAndBeerStyle(toFullTextQuery(beerName), "%" + beerName + "%",
+                            beerStyle.ordinal());
+        }
+
+        if (StringUtils.hasText(beerName) && beerStyle == null) {
+            return beerRepository.countByBeerNameIsLikeIgnoreCase("%" + beerName + "%");
         }
 
         else if (!StringUtils.hasText(beerName) && (beerStyle != null)) {
-            beerPage = listBeersByStyle(beerStyle, pageRequest);
+            return beerRepository.countByBeerStyle(beerStyle);
         }
 
         else if (StringUtils.hasText(beerName) && (beerStyle != null)) {
+            return beerRepository.countByBeerNameIsLikeIgnoreCaseAndBeerStyle("%" + beerName + "%", beerStyle);
+        }
+
+        return beerRepository.count();
+    }
+
+    // FULLTEXT ima smisla tek kad je upit barem duljine jednog ngram tokena, kraći upiti idu preko LIKE
+    private boolean useFullTextSearch(String beerName) {
+
+        return searchMode == BeerSearchMode.FULLTEXT
+                && StringUtils.hasText(beerName)
+                && stripFullTextOperators(beerName).length() >= FULLTEXT_MIN_QUERY_LENGTH;
+    }
+
+    // cijeli upit tražimo kao frazu ("..."), da MySQL ne bi tražio pojedinačne ngrame
+    String toFullTextQuery(String beerName) {
+        return "\"" + stripFullTextOperators(beerName) + "\"";
+    }
+
+    // znakovi koji u boolean modu imaju posebno značenje
+    private String stripFullTextOperators(String beerName) {
+        return beerName.replaceAll("[+\\-<>()~*\"@]", " ").trim();
+    }
+
+    // in-memory indeks pratimo samo kad se stvarno koristi
+    private void updateBeerNameIndex(BeerDTO beer) {
+
+        if (searchMode == BeerSearchMode.MEMORY) {
+            afterCommit(() -> beerNameIndex.upsert(beer.getId(), beer.getBeerName(), beer.getBeerStyle()));
+        }
+    }
+
+    // indeks mijenjamo tek nakon commit-a - kod rollback-a bi inače ostao s imenom koje u bazi ne postoji
+    private static void afterCommit(Runnable action) {
 
-            beerPage = listBeersByBeersNameAndStyle (beerName, beerStyle, pageRequest);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
 
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
             }
+        });
+    }
+
+    // Stream iz repozitorija mora živjeti unutar transakcije; svaki entitet nakon mapiranja detach-amo
+    // da persistence context ne raste s brojem pročitanih piva
+    @Transactional(readOnly = true)
+    @Override
+    public void streamBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Consumer<BeerDTO> consumer) {
+
+        try (Stream<Beer> beers = beerRepository.streamBeers(
+                StringUtils.hasText(beerName) ? "%" + beerName + "%" : null, beerStyle)) {
 
-        else {
-            beerPage = beerRepository.findAll(pageRequest);
+            beers.forEach(beer -> {
+                consumer.accept(beerToBeerDto(beer, showInventory));
+                entityManager.detach(beer);
+            });
         }
+    }
 
-        if (showInventory != null && !showInventory) {
+    // inventory brišemo na DTO-u, a ne na managed entitetu - inače bi Hibernate entitet vidio kao "dirty"
+    private BeerDTO beerToBeerDto(Beer beer, Boolean showInventory) {
+
+        BeerDTO beerDTO = beerMapper.beerToBeerDTO(beer);
 
-            beerPage.forEach(beer -> beer.setQuantityOnHand(null));
+        if (showInventory != null && !showInventory) {
+            beerDTO.setQuantityOnHand(null);
         }
 
-        return beerPage.map(beerMapper::beerToBeerDTO);
+        return beerDTO;
+    }
 
-        // return beerRepository
-        /* promijenili smo logiku da više metoda ne vraća List<>, nego Page<>
+    @Transactional(readOnly = true)
+    @Override
+    public BeerCursorPageDTO listBeersByCursor(String beerName, BeerStyle beerStyle, Boolean showInventory, BeerCursorCodec.Position position, Integer pageSize) {
 
-        return beerList.stream()
-                .map(beerMapper::beerToBeerDTO)
-                .collect(Collectors.toList());  // vrati kao listu
+        // ista pravila za veličinu stranice kao i kod offset paginacije (default 25, max 1000)
+        int queryPageSize = buildPageRequest(null, pageSize).getPageSize();
 
-         */
+        String lastBeerName = position != null ? position.beerName() : null;
+        UUID lastId = position != null ? position.id() : null;
+
+        // tražimo jedan zapis više od veličine stranice - tako znamo postoji li iduća stranica bez COUNT upita
+        List<Beer> beers = beerRepository.findBeerKeysetPage(
+                StringUtils.hasText(beerName) ? "%" + beerName + "%" : null,
+                beerStyle, lastBeerName, lastId, PageRequest.of(0, queryPageSize + 1));
+
+        boolean hasNext = beers.size() > queryPageSize;
+        List<Beer> pageContent = hasNext ? beers.subList(0, queryPageSize) : beers;
+
+        List<BeerDTO> dtos = pageContent.stream()
+                .map(beer -> beerToBeerDto(beer, showInventory))
+                .toList();
+
+        String nextCursor = null;
+
+        if (hasNext) {
+            Beer last = pageContent.get(pageContent.size() - 1);
+            nextCursor = BeerCursorCodec.encode(last.getBeerName(), last.getId());
+        }
+
+        return BeerCursorPageDTO.builder()
+                .content(dtos)
+                .size(dtos.size())
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
     }
 
     //sve public metode su testable
@@ -106,21 +341,9 @@ public class BeerServiceJPA implements BeerService {
         return PageRequest.of(queryPageNUmber, queryPageSize, sort);
     }
 
-    private Page<Beer> listBeersByBeersNameAndStyle(String beerName, BeerStyle beerStyle, org.springframework.data.domain.Pageable pageable) {
-
-        return beerRepository.findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle("%" + beerName + "%", beerStyle, (org.springframework.data.domain.Pageable) pageable);
-    }
-
-    private Page<Beer> listBeersByStyle(BeerStyle beerStyle, org.springframework.data.domain.Pageable pageable) {
-
-        return beerRepository.findAllByBeerStyle(beerStyle, (org.springframework.data.domain.Pageable) pageable);
-    }
-
-    Page<Beer> listBeersByName(String beerName, org.springframework.data.domain.Pageable pageable)  {
-
-        return beerRepository.findAllByBeerNameIsLikeIgnoreCase("%" + beerName + "%", (org.springframework.data.domain.Pageable) pageable);
-    }
-
+    // prazan Optional (nema piva) ne keširamo
+    @Cacheable(cacheNames = CacheConfig.BEER_CACHE, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
     @Override
     public Optional<BeerDTO> getBeerById(UUID id) {
         return Optional.ofNullable(beerMapper.beerToBeerDTO(beerRepository.findById(id).orElse(null)));
@@ -128,9 +351,16 @@ public class BeerServiceJPA implements BeerService {
 
     @Override
     public BeerDTO saveNewBeer(BeerDTO beer) {
-        return beerMapper.beerToBeerDTO(beerRepository.save(beerMapper.beerDtoToBeer(beer)));
+
+        BeerDTO savedBeer = beerMapper.beerToBeerDTO(beerRepository.save(beerMapper.beerDtoToBeer(beer)));
+
+        beerCountCache.invalidateAll();
+        updateBeerNameIndex(savedBeer);
+
+        return savedBeer;
     }
 
+    @CachePut(cacheNames = CacheConfig.BEER_CACHE, key = "#beerID", unless = "#result == null")
     @Override
     public Optional<BeerDTO> updateBeerById(UUID beerID, BeerDTO beer) {
 
@@ -159,6 +389,9 @@ public class BeerServiceJPA implements BeerService {
 
             atomicReference.set(Optional.of(beerMapper.beerToBeerDTO(beerRepository.save(foundBeer))));
 
+            beerCountCache.invalidateAll();  // ime ili stil su se možda promijenili
+            updateBeerNameIndex(atomicReference.get().get());
+
         }, () -> {
             atomicReference.set(Optional.empty());  // unhappy path
         } );
@@ -168,42 +401,207 @@ public class BeerServiceJPA implements BeerService {
 
     }
 
+    @CacheEvict(cacheNames = CacheConfig.BEER_CACHE, key = "#beerID")
     @Override
     public Boolean deleteBeerById(UUID beerID) {
 
         if(beerRepository.existsById(beerID)){
             beerRepository.deleteById(beerID);
+            beerCountCache.invalidateAll();
+            inventoryAllocator.inventoryChanged(beerID);
+
+            if (searchMode == BeerSearchMode.MEMORY) {
+                afterCommit(() -> beerNameIndex.delete(beerID));
+            }
             return true;
         }
 
         return false;
     }
 
+    // PATCH bez učitavanja entiteta: jedan UPDATE samo s poslanim kolonama, version + 1 (versioned UPDATE, Hibernate
+    // podiže @Version sam) i updateDate. Ako je poslan version, UPDATE prolazi samo ako je u bazi ista verzija
+    // (optimistic locking na razini API-ja). Kao svaki bulk UPDATE izbaci cijelu "beer" L2 regiju (application.properties).
+    // Bulk UPDATE zaobilazi Hibernate validaciju entiteta, pa poslana polja validiramo ovdje.
+    // Keširani BeerDTO se briše (nakon commit-a), jer cijeli zapis nemamo da bi ga upisali u keš
+    @CacheEvict(cacheNames = CacheConfig.BEER_CACHE, key = "#beerId")
+    @Transactional
     @Override
-    public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer) {
-        AtomicReference<Optional<BeerDTO>> atomicReference = new AtomicReference<>();
+    public Boolean patchBeerById(UUID beerId, BeerDTO beer) {
+
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        JpaCriteriaUpdate<Beer> update = cb.createCriteriaUpdate(Beer.class).versioned(true);
+        Root<Beer> root = update.from(Beer.class);
 
-        beerRepository.findById(beerId).ifPresentOrElse(foundBeer -> {
-            if (StringUtils.hasText(beer.getBeerName())){
-                foundBeer.setBeerName(beer.getBeerName());
+        Set<ConstraintViolation<Beer>> violations = new LinkedHashSet<>();
+        boolean changed = false;
+
+        if (StringUtils.hasText(beer.getBeerName())) {
+            violations.addAll(validator.validateValue(Beer.class, "beerName", beer.getBeerName()));
+            update.set(root.<String>get("beerName"), beer.getBeerName());
+            changed = true;
+        }
+        if (beer.getBeerStyle() != null) {
+            update.set(root.<BeerStyle>get("beerStyle"), beer.getBeerStyle());
+            changed = true;
+        }
+        if (StringUtils.hasText(beer.getUpc())) {
+            violations.addAll(validator.validateValue(Beer.class, "upc", beer.getUpc()));
+            update.set(root.<String>get("upc"), beer.getUpc());
+            changed = true;
+        }
+        if (beer.getPrice() != null) {
+            update.set(root.<BigDecimal>get("price"), beer.getPrice());
+            changed = true;
+        }
+        if (beer.getQuantityOnHand() != null) {
+            update.set(root.<Integer>get("quantityOnHand"), beer.getQuantityOnHand());
+            changed = true;
+        }
+
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        if (!changed) {
+            return beerRepository.existsById(beerId);
+        }
+
+        update.set(root.<LocalDateTime>get("updateDate"), LocalDateTime.now());
+
+        Predicate where = cb.equal(root.get("id"), beerId);
+
+        if (beer.getVersion() != null) {
+            where = cb.and(where, cb.equal(root.get("version"), beer.getVersion()));
+        }
+
+        update.where(where);
+
+        if (entityManager.createQuery(update).executeUpdate() == 0) {
+
+            // 0 redova: ili pivo ne postoji ili je verzija zastarjela - samo u tom (rijetkom) slučaju još jedan upit
+            if (beer.getVersion() != null && beerRepository.existsById(beerId)) {
+                throw new ObjectOptimisticLockingFailureException(Beer.class, beerId);
             }
-            if (beer.getBeerStyle() != null){
-                foundBeer.setBeerStyle(beer.getBeerStyle());
+            return false;
+        }
+
+        if (beer.getQuantityOnHand() != null) {
+            inventoryAllocator.inventoryChanged(beerId);
+        }
+
+        if (StringUtils.hasText(beer.getBeerName()) || beer.getBeerStyle() != null) {
+            beerCountCache.invalidateAll();
+
+            // indeksu treba i ime i stil, a PATCH je možda poslao samo jedno od toga
+            if (searchMode == BeerSearchMode.MEMORY) {
+                beerRepository.findById(beerId).map(beerMapper::beerToBeerDTO).ifPresent(this::updateBeerNameIndex);
             }
-            if (StringUtils.hasText(beer.getUpc())){
-                foundBeer.setUpc(beer.getUpc());
+        }
+
+        return true;
+    }
+
+    @Override
+    public List<BeerBatchResultDTO> saveBeersInBatch(List<BeerDTO> beers) {
+
+        List<BeerBatchResultDTO> results = new ArrayList<>(beers.size());
+        List<BeerDTO> savedBeers = new ArrayList<>();
+
+        // svaki chunk je zasebna transakcija - greška u jednom chunku ne poništava one koji su već snimljeni
+        for (int from = 0; from < beers.size(); from += batchChunkSize) {
+
+            int chunkOffset = from;
+            List<BeerDTO> chunk = beers.subList(from, Math.min(from + batchChunkSize, beers.size()));
+
+            transactionTemplate.executeWithoutResult(status -> saveBeerChunk(chunkOffset, chunk, results, savedBeers));
+        }
+
+        beerCountCache.invalidateAll();
+
+        Cache beerCache = cacheManager.getCache(CacheConfig.BEER_CACHE);
+
+        savedBeers.forEach(savedBeer -> {
+            if (beerCache != null) {
+                beerCache.evict(savedBeer.getId());
             }
-            if (beer.getPrice() != null){
-                foundBeer.setPrice(beer.getPrice());
+            updateBeerNameIndex(savedBeer);
+        });
+
+        return results;
+    }
+
+    private void saveBeerChunk(int chunkOffset, List<BeerDTO> chunk, List<BeerBatchResultDTO> results, List<BeerDTO> savedBeers) {
+
+        // sva piva za update iz ovog chunka dohvaćamo jednim upitom
+        Set<UUID> ids = chunk.stream()
+                .map(BeerDTO::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<UUID, Beer> existingBeers = beerRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Beer::getId, Function.identity()));
+
+        List<Beer> chunkBeers = new ArrayList<>(chunk.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+
+            BeerDTO beerDTO = chunk.get(i);
+            BeerBatchResultDTO.BeerBatchResultDTOBuilder result = BeerBatchResultDTO.builder()
+                    .index(chunkOffset + i)
+                    .id(beerDTO.getId());
+
+            // validiramo i DTO i entitet (entitet ima dodatna ograničenja, npr. @Size na beerName), da jedan
+            // neispravan zapis ne sruši flush cijelog chunka
+            List<Map<String, String>> errors = validateBeer(beerDTO);
+
+            if (!errors.isEmpty()) {
+                results.add(result.status(BeerBatchStatus.INVALID).errors(errors).build());
+                continue;
             }
-            if (beer.getQuantityOnHand() != null){
-                foundBeer.setQuantityOnHand(beer.getQuantityOnHand());
+
+            if (beerDTO.getId() == null) {
+                Beer beer = beerMapper.beerDtoToBeer(beerDTO);
+                entityManager.persist(beer);  // UUID generator dodijeli id već kod persist-a, INSERT ide tek kod flush-a
+
+                chunkBeers.add(beer);
+                results.add(result.id(beer.getId()).status(BeerBatchStatus.CREATED).build());
+            } else {
+                Beer foundBeer = existingBeers.get(beerDTO.getId());
+
+                if (foundBeer == null) {
+                    results.add(result.status(BeerBatchStatus.NOT_FOUND).build());
+                    continue;
+                }
+
+                // ista polja kao i kod updateBeerById, UPDATE generira dirty checking kod flush-a
+                foundBeer.setBeerName(beerDTO.getBeerName());
+                foundBeer.setBeerStyle(beerDTO.getBeerStyle());
+                foundBeer.setUpc(beerDTO.getUpc());
+                foundBeer.setPrice(beerDTO.getPrice());
+
+                chunkBeers.add(foundBeer);
+                results.add(result.status(BeerBatchStatus.UPDATED).build());
             }
-            atomicReference.set(Optional.of(beerMapper.beerToBeerDTO(beerRepository.save(foundBeer))));
-        }, () -> {
-            atomicReference.set(Optional.empty());
-        });
+        }
 
-        return atomicReference.get();
+        entityManager.flush();
+
+        chunkBeers.forEach(beer -> savedBeers.add(beerMapper.beerToBeerDTO(beer)));
+
+        // persistence context ne smije rasti kroz chunkove
+        entityManager.clear();
+    }
+
+    private List<Map<String, String>> validateBeer(BeerDTO beerDTO) {
+
+        Set<ConstraintViolation<Object>> violations = new LinkedHashSet<>();
+        violations.addAll(validator.validate((Object) beerDTO));
+        violations.addAll(validator.validate((Object) beerMapper.beerDtoToBeer(beerDTO)));
+
+        return violations.stream()
+                .map(violation -> Map.of(violation.getPropertyPath().toString(), violation.getMessage()))
+                .distinct()
+                .toList();
     }
 }
@@ -1,10 +1,12 @@
 package guru.springframework.spring6restmvc.services;
 
 import guru.springframework.spring6restmvc.model.CustomerDTO;
+import org.springframework.data.domain.Page;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Created by jt, Spring Framework Guru.
@@ -15,11 +17,17 @@ public interface CustomerService {
 
     List<CustomerDTO> getAllCustomers();
 
+    Page<CustomerDTO> listCustomers(Integer pageNumber, Integer pageSize);
+
+    // svaki customer se preda consumer-u čim se pročita iz baze, cijela lista se nikad ne drži u memoriji
+    void streamAllCustomers(Consumer<CustomerDTO> consumer);
+
     CustomerDTO saveNewCustomer(CustomerDTO customer);
 
     Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customer);
 
     Boolean deleteCustomerById(UUID customerId);
 
-    Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer);
+    // mijenja samo poslana polja; false ako customer ne postoji
+    Boolean patchCustomerById(UUID customerId, CustomerDTO customer);
 }
\ No newline at end of file
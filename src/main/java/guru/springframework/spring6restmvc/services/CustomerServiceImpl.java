@@ -1,11 +1,14 @@
 package guru.springframework.spring6restmvc.services;
 
 import guru.springframework.spring6restmvc.model.CustomerDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Created by jt, Spring Framework Guru.
@@ -58,6 +61,16 @@ public class CustomerServiceImpl implements CustomerService {
         return new ArrayList<>(customerMap.values());
     }
 
+    @Override
+    public Page<CustomerDTO> listCustomers(Integer pageNumber, Integer pageSize) {
+        return new PageImpl<>(new ArrayList<>(customerMap.values()));
+    }
+
+    @Override
+    public void streamAllCustomers(Consumer<CustomerDTO> consumer) {
+        customerMap.values().forEach(consumer);
+    }
+
     @Override
     public CustomerDTO saveNewCustomer(CustomerDTO customer) {
 
@@ -94,15 +107,19 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    public Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer) {
+    public Boolean patchCustomerById(UUID customerId, CustomerDTO customer) {
 
         CustomerDTO existingCustomer = customerMap.get(customerId);
 
+        if (existingCustomer == null) {
+            return false;
+        }
+
         if (StringUtils.hasText(customer.getName())) {
             existingCustomer.setName(customer.getName());
         }
 
-        return Optional.of(existingCustomer);
+        return true;
 
     }
 }
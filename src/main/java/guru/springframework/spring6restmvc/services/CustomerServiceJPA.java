@@ -1,19 +1,41 @@
 package guru.springframework.spring6restmvc.services;
 
+import guru.springframework.spring6restmvc.config.CacheConfig;
+import guru.springframework.spring6restmvc.entities.Customer;
 import guru.springframework.spring6restmvc.mappers.CustomerMapper;
 import guru.springframework.spring6restmvc.model.CustomerDTO;
 import guru.springframework.spring6restmvc.repositories.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaUpdate;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Primary //obzirom da je ovo 2. implementacija iste klase, jedna mora biti @Primary, obzirom da su obje na Classpath-u
@@ -21,13 +43,25 @@ import java.util.stream.Collectors;
 public class CustomerServiceJPA implements CustomerService {
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
+    private final Validator validator;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final int DEFAULT_PAGE = 0;
+    private static final int DEFAULT_PAGE_SIZE = 25;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // read-only transakcije kao i u BeerServiceJPA - bez flush-a i snapshot-a, konekcija označena kao read-only
+    @Cacheable(cacheNames = CacheConfig.CUSTOMER_CACHE, key = "#uuid", unless = "#result == null")
+    @Transactional(readOnly = true)
     @Override
     public Optional<CustomerDTO> getCustomerById(UUID uuid) {
         return Optional.ofNullable(customerMapper
                 .customerToCustomerDto(customerRepository.findById(uuid).orElse(null)));
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<CustomerDTO> getAllCustomers() {
         return customerRepository.findAll().stream()
@@ -35,12 +69,49 @@ public class CustomerServiceJPA implements CustomerService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Page<CustomerDTO> listCustomers(Integer pageNumber, Integer pageSize) {
+        return customerRepository.findAll(buildPageRequest(pageNumber, pageSize))
+                .map(customerMapper::customerToCustomerDto);
+    }
+
+    // Stream iz repozitorija mora živjeti unutar transakcije, a svaki entitet odmah detach-amo
+    // da persistence context ne raste s brojem pročitanih customera
+    @Transactional(readOnly = true)
+    @Override
+    public void streamAllCustomers(Consumer<CustomerDTO> consumer) {
+
+        try (Stream<Customer> customers = customerRepository.streamAllCustomers()) {
+            customers.forEach(customer -> {
+                consumer.accept(customerMapper.customerToCustomerDto(customer));
+                entityManager.detach(customer);
+            });
+        }
+    }
+
+    public PageRequest buildPageRequest(Integer pageNumber, Integer pageSize) {
+
+        int queryPageNumber = (pageNumber != null && pageNumber > 0) ? pageNumber - 1 : DEFAULT_PAGE;
+
+        int queryPageSize;
+
+        if (pageSize == null) {
+            queryPageSize = DEFAULT_PAGE_SIZE;
+        } else {
+            queryPageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+        }
+
+        return PageRequest.of(queryPageNumber, queryPageSize, Sort.by(Sort.Order.asc("name")));
+    }
+
     @Override
     public CustomerDTO saveNewCustomer(CustomerDTO customer) {
         return customerMapper.customerToCustomerDto(customerRepository
                 .save(customerMapper.customerDtoToCustomer(customer)));
     }
 
+    @CachePut(cacheNames = CacheConfig.CUSTOMER_CACHE, key = "#customerId", unless = "#result == null")
     @Override
     public Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customer) {
         AtomicReference<Optional<CustomerDTO>> atomicReference = new AtomicReference<>();
@@ -56,6 +127,7 @@ public class CustomerServiceJPA implements CustomerService {
         return atomicReference.get();
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMER_CACHE, key = "#customerId")
     @Override
     public Boolean deleteCustomerById(UUID customerId) {
         if(customerRepository.existsById(customerId)){
@@ -65,20 +137,45 @@ public class CustomerServiceJPA implements CustomerService {
         return false;
     }
 
+    // kao BeerServiceJPA.patchBeerById - jedan versioned UPDATE samo s poslanim kolonama i updateDate, bez prethodnog
+    // SELECT-a. Poslano ime se validira ovdje (prazno ime je 400, ne tihi no-op), jer bulk UPDATE zaobilazi validaciju entiteta
+    @CacheEvict(cacheNames = CacheConfig.CUSTOMER_CACHE, key = "#customerId")
+    @Transactional
     @Override
-    public Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer) {
-        AtomicReference<Optional<CustomerDTO>> atomicReference = new AtomicReference<>();
+    public Boolean patchCustomerById(UUID customerId, CustomerDTO customer) {
 
-        customerRepository.findById(customerId).ifPresentOrElse(foundCustomer -> {
-            if (StringUtils.hasText(customer.getName())){
-                foundCustomer.setName(customer.getName());
+        if (customer.getName() == null) {
+            return customerRepository.existsById(customerId);
+        }
+
+        Set<ConstraintViolation<Customer>> violations = validator.validateValue(Customer.class, "name", customer.getName());
+
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        JpaCriteriaUpdate<Customer> update = cb.createCriteriaUpdate(Customer.class).versioned(true);
+        Root<Customer> root = update.from(Customer.class);
+
+        update.set(root.<String>get("name"), customer.getName());
+        update.set(root.<LocalDateTime>get("updateDate"), LocalDateTime.now());
+
+        Predicate where = cb.equal(root.get("id"), customerId);
+
+        if (customer.getVersion() != null) {
+            where = cb.and(where, cb.equal(root.get("version"), customer.getVersion()));
+        }
+
+        update.where(where);
+
+        if (entityManager.createQuery(update).executeUpdate() == 0) {
+            if (customer.getVersion() != null && customerRepository.existsById(customerId)) {
+                throw new ObjectOptimisticLockingFailureException(Customer.class, customerId);
             }
-            atomicReference.set(Optional.of(customerMapper
-                    .customerToCustomerDto(customerRepository.save(foundCustomer))));
-        }, () -> {
-            atomicReference.set(Optional.empty());
-        });
+            return false;
+        }
 
-        return atomicReference.get();
+        return true;
     }
 }
\ No newline at end of file
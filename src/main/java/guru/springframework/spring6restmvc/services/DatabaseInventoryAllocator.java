@@ -0,0 +1,48 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.config.CacheConfig;
+import guru.springframework.spring6restmvc.entities.BeerOrderLine;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Alokacija uvjetnim UPDATE-om na beer tablici (BeerRepository.allocateInventory). Red piva ostaje zaključan do
+ * commit-a narudžbe, pa se narudžbe za isto pivo izvršavaju jedna za drugom - jednostavno i uvijek točno, ali
+ * kod jako traženih piva sve narudžbe čekaju na isti lock.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.inventory.allocator", havingValue = "database", matchIfMissing = true)
+public class DatabaseInventoryAllocator implements InventoryAllocator {
+
+    private final BeerRepository beerRepository;
+    private final CacheManager cacheManager;
+
+    @Override
+    public void allocate(BeerOrderLine beerOrderLine) {
+
+        UUID beerId = beerOrderLine.getBeer().getId();
+        int quantity = beerOrderLine.getOrderQuantity();
+
+        boolean allocated = beerRepository.allocateInventory(beerId, quantity) == 1;
+
+        beerOrderLine.setQuantityAllocated(allocated ? quantity : 0);
+        beerOrderLine.setAllocationFlushed(true);
+
+        // quantityOnHand se promijenio mimo BeerServiceJPA - keširani BeerDTO se briše, a cache manager je
+        // transaction aware pa se evict izvrši tek nakon commit-a
+        if (allocated) {
+            Cache beerCache = cacheManager.getCache(CacheConfig.BEER_CACHE);
+
+            if (beerCache != null) {
+                beerCache.evict(beerId);
+            }
+        }
+    }
+}
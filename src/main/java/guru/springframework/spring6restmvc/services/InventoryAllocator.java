@@ -0,0 +1,28 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.entities.BeerOrderLine;
+
+import java.util.UUID;
+
+/**
+ * Alokacija zalihe (Beer.quantityOnHand) za stavku narudžbe. Implementacija se bira s app.inventory.allocator:
+ * database (default, DatabaseInventoryAllocator) ili reservation (ReservationInventoryAllocator).
+ */
+public interface InventoryAllocator {
+
+    /**
+     * Alocira cijelu orderQuantity stavke ili ništa, i postavi quantityAllocated i allocationFlushed na stavci.
+     * Poziva se unutar transakcije koja snima narudžbu, za više stavki sortirano po beerId; ako se transakcija
+     * poništi, alokacija se također poništava.
+     */
+    void allocate(BeerOrderLine beerOrderLine);
+
+    /**
+     * Javlja da je quantityOnHand piva promijenjen (ili je pivo obrisano) mimo narudžbi, npr. PATCH-em preko beer API-ja.
+     * Poziva se unutar transakcije koja mijenja pivo; implementacija koja zalihu drži u memoriji je mora ponovno
+     * učitati nakon commit-a.
+     */
+    default void inventoryChanged(UUID beerId) {
+    }
+
+}
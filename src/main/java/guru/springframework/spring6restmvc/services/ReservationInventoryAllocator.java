@@ -0,0 +1,247 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.config.CacheConfig;
+import guru.springframework.spring6restmvc.entities.BeerOrderLine;
+import guru.springframework.spring6restmvc.model.BeerOrderLineAllocation;
+import guru.springframework.spring6restmvc.repositories.BeerOrderLineRepository;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Alokacija bez lock-ova u bazi: za svako pivo se u memoriji drži dostupna zaliha podijeljena na stripe-ove
+ * (StripedInventory), a rezervacija je u pravilu jedan compare-and-set na stripe-u tog thread-a. Narudžba u bazu upisuje samo stavke (quantityAllocated, allocationFlushed = false); beer
+ * red se uopće ne dira, pa narudžbe za isto pivo ne čekaju jedna drugu.
+ * <p>
+ * Svakih flush-interval sve commit-ane, a još neskinute alokacije se zbroje po pivu i s quantity_on_hand skinu
+ * jednim UPDATE-om po pivu, a stavke se označe s allocationFlushed = true - sve u istoj transakciji.
+ * <p>
+ * Dostupna zaliha piva se učita iz baze kod prve narudžbe za to pivo: quantity_on_hand minus neskinute alokacije
+ * (BeerOrderLineRepository.findAvailableInventory). Taj izraz ne ovisi o tome je li flush već prošao, pa je i
+ * recovery nakon pada jednostavan - stanje u memoriji se gradi ispočetka iz baze, a kod starta aplikacije flush
+ * odmah skine sve alokacije koje su ostale neskinute.
+ * <p>
+ * Kad beer API promijeni quantityOnHand (PATCH) ili obriše pivo, BeerServiceJPA javi inventoryChanged, pa se
+ * zaliha tog piva nakon commit-a učita ponovno. PUT i batch update quantityOnHand ne diraju (Beer je @DynamicUpdate).
+ * <p>
+ * Stanje je u memoriji jedne instance: koristiti samo kad je aplikacija pokrenuta u jednoj instanci i kad se
+ * quantityOnHand ne mijenja mimo aplikacije (direktno u bazi) dok je aplikacija pokrenuta.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.inventory.allocator", havingValue = "reservation")
+public class ReservationInventoryAllocator implements InventoryAllocator, AutoCloseable {
+
+    private final BeerRepository beerRepository;
+    private final BeerOrderLineRepository beerOrderLineRepository;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate flushTransactionTemplate;
+    private final TransactionTemplate loadTransactionTemplate;
+    private final Duration flushInterval;
+    private final int flushBatchSize;
+
+    private final ConcurrentMap<UUID, StripedInventory> availableInventory = new ConcurrentHashMap<>();
+
+    // rezervirane količine commit-ane od zadnjeg flush-a - dok je 0, flush ne ide u bazu
+    private final LongAdder unflushedQuantity = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    public ReservationInventoryAllocator(BeerRepository beerRepository,
+                                         BeerOrderLineRepository beerOrderLineRepository,
+                                         CacheManager cacheManager,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${app.inventory.reservation.flush-interval:PT1S}") Duration flushInterval,
+                                         @Value("${app.inventory.reservation.flush-batch-size:500}") int flushBatchSize) {
+        this.beerRepository = beerRepository;
+        this.beerOrderLineRepository = beerOrderLineRepository;
+        this.cacheManager = cacheManager;
+        this.flushInterval = flushInterval;
+        this.flushBatchSize = flushBatchSize;
+
+        this.flushTransactionTemplate = new TransactionTemplate(transactionManager);
+
+        // zaliha se učitava u zasebnoj transakciji, a ne u snapshot-u transakcije narudžbe koja je počela ranije
+        this.loadTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.loadTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransactionTemplate.setReadOnly(true);
+    }
+
+    // recovery: sve što je prije pada ostalo neskinuto ide u bazu prije prvog periodičnog flush-a
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+
+        flush();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-reservation-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(this::flushIfPending, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        log.info("Inventory reservations flushed every {}", flushInterval);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+
+        // bez ovoga bi zadnje rezervacije čekale recovery kod idućeg starta
+        flushIfPending();
+    }
+
+    @Override
+    public void allocate(BeerOrderLine beerOrderLine) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Inventory can only be reserved inside the order transaction");
+        }
+
+        int quantity = beerOrderLine.getOrderQuantity();
+        StripedInventory available = availableInventory(beerOrderLine.getBeer().getId());
+
+        boolean reserved = available.reserve(quantity);
+
+        beerOrderLine.setQuantityAllocated(reserved ? quantity : 0);
+        beerOrderLine.setAllocationFlushed(!reserved);
+
+        if (reserved) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        unflushedQuantity.add(quantity);
+                    } else if (status == STATUS_ROLLED_BACK) {
+                        available.release(quantity);
+                    }
+                    // STATUS_UNKNOWN: ne znamo je li stavka u bazi, rezervacija ostaje - radije manje nego previše
+                }
+            });
+        }
+    }
+
+    // stari brojač se samo izbaci iz mape, a iduća narudžba učita novo stanje iz baze. Rezervacije koje su ga već
+    // uzele svoju stavku commit-aju normalno (ulazi u findAvailableInventory), a rollback vraća zalihu u brojač
+    // koji više nitko ne koristi
+    @Override
+    public void inventoryChanged(UUID beerId) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            availableInventory.remove(beerId);
+            return;
+        }
+
+        // prije commit-a bi se ponovno učitalo staro stanje, pa brojač izbacujemo tek nakon njega
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    availableInventory.remove(beerId);
+                }
+            }
+        });
+    }
+
+    private StripedInventory availableInventory(UUID beerId) {
+
+        StripedInventory available = availableInventory.get(beerId);
+
+        if (available != null) {
+            return available;
+        }
+
+        // bez computeIfAbsent da upit ne ide pod lock-om mape; ako dva thread-a učitaju isto pivo, oba pročitaju
+        // istu vrijednost (rezervacija za njega još nema), a ostaje ona koja je prva upisana
+        Long inventory = loadTransactionTemplate.execute(status -> beerOrderLineRepository.findAvailableInventory(beerId));
+        StripedInventory loaded = new StripedInventory(inventory != null ? inventory : 0);
+
+        StripedInventory existing = availableInventory.putIfAbsent(beerId, loaded);
+
+        return existing != null ? existing : loaded;
+    }
+
+    private void flushIfPending() {
+
+        long pending = unflushedQuantity.sumThenReset();
+
+        if (pending == 0) {
+            return;
+        }
+
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // alokacije ostaju neskinute u bazi, pokušavamo opet u idućem krugu
+            unflushedQuantity.add(pending);
+            log.warn("Inventory reservation flush failed", e);
+        }
+    }
+
+    public void flush() {
+
+        Integer flushed;
+
+        do {
+            flushed = flushTransactionTemplate.execute(status -> flushBatch());
+        } while (flushed != null && flushed == flushBatchSize);
+    }
+
+    private int flushBatch() {
+
+        List<BeerOrderLineAllocation> allocations = beerOrderLineRepository.findUnflushedAllocations(PageRequest.of(0, flushBatchSize));
+
+        if (allocations.isEmpty()) {
+            return 0;
+        }
+
+        // neto delta po pivu; TreeMap da se beer redovi zaključavaju uvijek istim redoslijedom
+        Map<UUID, Long> deltas = allocations.stream()
+                .collect(Collectors.groupingBy(BeerOrderLineAllocation::beerId, TreeMap::new,
+                        Collectors.summingLong(BeerOrderLineAllocation::quantityAllocated)));
+
+        deltas.forEach(beerRepository::deductInventory);
+
+        beerOrderLineRepository.markAllocationsFlushed(allocations.stream()
+                .map(BeerOrderLineAllocation::beerOrderLineId)
+                .toList());
+
+        Cache beerCache = cacheManager.getCache(CacheConfig.BEER_CACHE);
+
+        if (beerCache != null) {
+            deltas.keySet().forEach(beerCache::evict);
+        }
+
+        log.debug("Flushed {} inventory reservations for {} beers", allocations.size(), deltas.size());
+
+        return allocations.size();
+    }
+}
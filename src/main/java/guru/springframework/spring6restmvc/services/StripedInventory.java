@@ -0,0 +1,104 @@
+package guru.springframework.spring6restmvc.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Dostupna zaliha jednog piva podijeljena na stripe-ove, po uzoru na LongAdder: svaki stripe ima svoj dio zalihe
+ * (budžet), a thread rezervira compare-and-set-om na svom stripe-u, pa narudžbe za isto pivo s različitih thread-ova
+ * ne udaraju u isti brojač.
+ * <p>
+ * Kad na svom stripe-u nema dovoljno, rezervacija ide sporim putem pod lock-om: pokupi sve stripe-ove, provjeri
+ * ukupnu zalihu i ostatak ponovno ravnomjerno rasporedi. Brza rezervacija ne može preprodati (budžeti se samo
+ * smanjuju CAS-om), a odbijena tek kad ni ukupna zaliha nije dovoljna.
+ */
+final class StripedInventory {
+
+    static final int DEFAULT_STRIPES = Integer.highestOneBit(Math.min(Runtime.getRuntime().availableProcessors(), 16));
+
+    // 8 long-ova razmaka između stripe-ova = 64 bajta, da dva stripe-a ne budu u istoj cache liniji
+    private static final int PADDING = 8;
+
+    private final int stripes;
+    private final AtomicLongArray budgets;
+
+    StripedInventory(long available) {
+        this(available, DEFAULT_STRIPES);
+    }
+
+    StripedInventory(long available, int stripes) {
+
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Number of stripes must be a power of two, got " + stripes);
+        }
+
+        this.stripes = stripes;
+        this.budgets = new AtomicLongArray(stripes * PADDING);
+
+        distribute(Math.max(available, 0));
+    }
+
+    boolean reserve(int quantity) {
+
+        int index = index(stripe());
+        long current;
+
+        do {
+            current = budgets.get(index);
+
+            if (current < quantity) {
+                return reserveFromAll(quantity);
+            }
+        } while (!budgets.compareAndSet(index, current, current - quantity));
+
+        return true;
+    }
+
+    void release(int quantity) {
+        budgets.addAndGet(index(stripe()), quantity);
+    }
+
+    long available() {
+
+        long sum = 0;
+
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            sum += budgets.get(index(stripe));
+        }
+
+        return sum;
+    }
+
+    // stripe-ovi se prazne s getAndSet(0), pa konkurentne brze rezervacije vide 0 i čekaju ovdje na lock
+    private synchronized boolean reserveFromAll(int quantity) {
+
+        long total = 0;
+
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            total += budgets.getAndSet(index(stripe), 0);
+        }
+
+        boolean reserved = total >= quantity;
+
+        distribute(reserved ? total - quantity : total);
+
+        return reserved;
+    }
+
+    private void distribute(long available) {
+
+        long share = available / stripes;
+        long remainder = available % stripes;
+
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            budgets.addAndGet(index(stripe), stripe < remainder ? share + 1 : share);
+        }
+    }
+
+    private int stripe() {
+        return (int) Thread.currentThread().threadId() & (stripes - 1);
+    }
+
+    private static int index(int stripe) {
+        return stripe * PADDING;
+    }
+}
@@ -0,0 +1,10 @@
+-- V7 indeks je izgrađen s InnoDB default stopword listom. ngram parser izbaci svaki token koji sadrži stopword
+-- (i jednoslovne "a", "i"...), pa npr. "ip" i "pa" nikad ne uđu u indeks i MATCH na "IPA" promaši piva koja LIKE nađe.
+-- Stopword lista se veže uz indeks kod kreiranja, pa ga gradimo ponovno s isključenim stopword-ima
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+alter table beer
+    drop index beer_name_ft_idx;
+
+alter table beer
+    add fulltext index beer_name_ft_idx (beer_name) with parser ngram;
@@ -0,0 +1,3 @@
+-- Beer.version je sada JPA @Version (Hibernate ga puni kod INSERT-a i provjerava kod UPDATE-a). Redovi snimljeni dok je
+-- stupac bio samo Spring Data @Version imaju null, a UPDATE ... where version = null nikad ne prolazi
+update beer set version = 0 where version is null;
@@ -0,0 +1,3 @@
+-- Customer.version je sada JPA @Version kao i Beer.version (V11) - versioned UPDATE i provjera verzije ne prolaze
+-- za redove s null verzijom
+update customer set version = 0 where version is null;
@@ -0,0 +1,4 @@
+-- keyset (seek) paginacija ide po (beer_name, id), a filter po stilu je tipično uparen sa sortom po imenu
+create index beer_name_id_idx on beer (beer_name, id);
+
+create index beer_style_name_idx on beer (beer_style, beer_name, id);
@@ -0,0 +1,5 @@
+-- "%name%" LIKE ne može koristiti B-tree indeks, pa za pretragu po imenu dodajemo FULLTEXT indeks sa ngram parserom.
+-- ngram parser (default ngram_token_size=2) indeksira sve podnizove od 2 znaka, pa MATCH ... AGAINST u boolean modu
+-- sa frazom pokriva i pretragu po dijelu riječi (npr. "IPA" unutar "Sip of Sunshine IPA")
+alter table beer
+    add fulltext index beer_name_ft_idx (beer_name) with parser ngram;
@@ -0,0 +1,6 @@
+-- alokacije koje su rezervirane u memoriji (ReservationInventoryAllocator), a još nisu skinute s beer.quantity_on_hand.
+-- Postojeće stavke se smatraju obrađenima. Indeks je za flush i recovery upit (allocation_flushed = false)
+alter table beer_order_line
+    add column allocation_flushed bit(1) not null default 1;
+
+create index bol_allocation_flushed_idx on beer_order_line (allocation_flushed, beer_id);
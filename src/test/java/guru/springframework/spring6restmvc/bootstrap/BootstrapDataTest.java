@@ -1,9 +1,11 @@
 package guru.springframework.spring6restmvc.bootstrap;
 
+import guru.springframework.spring6restmvc.mappers.BeerCsvRecordConverter;
 import guru.springframework.spring6restmvc.repositories.BeerRepository;
 import guru.springframework.spring6restmvc.repositories.CustomerRepository;
 import guru.springframework.spring6restmvc.services.BeerCsvService;
 import guru.springframework.spring6restmvc.services.BeerCsvServiceImpl;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
@@ -30,12 +32,15 @@ class BootstrapDataTest {
     @Autowired
     BeerCsvService csvService;
 
+    @Autowired
+    EntityManager entityManager;
+
 
     BootstrapData bootstrapData;
 
     @BeforeEach
     void setUp() {
-        bootstrapData = new BootstrapData(beerRepository, customerRepository, csvService);  //ovo će se izvršavati prije svakog testa
+        bootstrapData = new BootstrapData(beerRepository, customerRepository, csvService, new BeerCsvRecordConverter(), entityManager);  //ovo će se izvršavati prije svakog testa
 
     }
 
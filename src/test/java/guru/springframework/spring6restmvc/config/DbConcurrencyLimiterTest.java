@@ -0,0 +1,82 @@
+package guru.springframework.spring6restmvc.config;
+
+import guru.springframework.spring6restmvc.controller.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class DbConcurrencyLimiterTest {
+
+    @Mock
+    ProceedingJoinPoint outerCall;
+
+    @Mock
+    ProceedingJoinPoint innerCall;
+
+    DbConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new DbConcurrencyLimiter(1, Duration.ofMillis(100), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testPermitTimeoutThrowsServiceUnavailable() throws Throwable {
+        CountDownLatch permitTaken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        given(outerCall.proceed()).willAnswer(invocation -> {
+            permitTaken.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "done";
+        });
+
+        // jedina dozvola je zauzeta na drugom thread-u
+        CompletableFuture<Object> holder = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.limit(outerCall);
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertThat(permitTaken.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> limiter.limit(innerCall))
+                    .isInstanceOf(ServiceUnavailableException.class);
+        } finally {
+            release.countDown();
+        }
+
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+    }
+
+    @Timeout(5)
+    @Test
+    void testNestedCallOnSameThreadReusesPermit() throws Throwable {
+        given(innerCall.proceed()).willReturn("inner");
+        given(outerCall.proceed()).willAnswer(invocation -> limiter.limit(innerCall));
+
+        // s max 1 dozvolom bi ugniježđeni poziv bez re-entry provjere čekao sam na sebe i dobio 503
+        assertThat(limiter.limit(outerCall)).isEqualTo("inner");
+
+        // dozvola je vraćena, pa sljedeći poziv opet prolazi
+        assertThat(limiter.limit(innerCall)).isEqualTo("inner");
+    }
+}
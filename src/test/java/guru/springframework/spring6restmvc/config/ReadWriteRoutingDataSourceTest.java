@@ -0,0 +1,119 @@
+package guru.springframework.spring6restmvc.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// dvije H2 baze glume primary i repliku - svaka u tablici server_role ima svoje ime
+class ReadWriteRoutingDataSourceTest {
+
+    static final String ROLE_QUERY = "select name from server_role";
+
+    JdbcTemplate replicaJdbcTemplate;
+    ReplicaLagMonitor replicaLagMonitor;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate readOnlyTransaction;
+    TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2DataSource("primary");
+        DataSource replica = h2DataSource("replica");
+
+        replicaJdbcTemplate = new JdbcTemplate(replica);
+
+        replicaJdbcTemplate.execute("create table replica_lag (seconds bigint)");
+        replicaJdbcTemplate.update("insert into replica_lag values (0)");
+
+        replicaLagMonitor = new ReplicaLagMonitor(replica, "select seconds from replica_lag",
+                Duration.ofSeconds(5), Duration.ofMinutes(1));
+        replicaLagMonitor.start();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor::isReplicaAvailable));
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // baze se ne gase "shutdown"-om - svaki test ionako ima svoj in-memory URL
+    @AfterEach
+    void tearDown() {
+        replicaLagMonitor.close();
+    }
+
+    @Test
+    void testReadOnlyTransactionUsesReplica() {
+        String role = readOnlyTransaction.execute(status -> serverRole());
+        assertThat(role).isEqualTo("replica");
+    }
+
+    @Test
+    void testReadWriteTransactionUsesPrimary() {
+        String role = readWriteTransaction.execute(status -> serverRole());
+        assertThat(role).isEqualTo("primary");
+    }
+
+    @Test
+    void testNoTransactionUsesPrimary() {
+        assertThat(serverRole()).isEqualTo("primary");
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimary() {
+        replicaJdbcTemplate.update("update replica_lag set seconds = 30");
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isFalse();
+        assertThat(replicaLagMonitor.getLagSeconds()).isEqualTo(30);
+        String role = readOnlyTransaction.execute(status -> serverRole());
+        assertThat(role).isEqualTo("primary");
+
+        replicaJdbcTemplate.update("update replica_lag set seconds = 1");
+        replicaLagMonitor.check();
+
+        role = readOnlyTransaction.execute(status -> serverRole());
+        assertThat(role).isEqualTo("replica");
+    }
+
+    @Test
+    void testStoppedReplicationFallsBackToPrimary() {
+        replicaJdbcTemplate.update("update replica_lag set seconds = null");
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isFalse();
+        assertThat(replicaLagMonitor.getLagSeconds()).isEqualTo(-1);
+        String role = readOnlyTransaction.execute(status -> serverRole());
+        assertThat(role).isEqualTo("primary");
+    }
+
+    String serverRole() {
+        return jdbcTemplate.queryForObject(ROLE_QUERY, String.class);
+    }
+
+    static DataSource h2DataSource(String role) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + role + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table server_role (name varchar(20))");
+        jdbcTemplate.update("insert into server_role values (?)", role);
+
+        return dataSource;
+    }
+}
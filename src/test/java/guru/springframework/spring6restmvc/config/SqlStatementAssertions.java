@@ -0,0 +1,38 @@
+package guru.springframework.spring6restmvc.config;
+
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pomoćne metode za testove - pokrene akciju u SqlStatementCounter scope-u i provjeri koliko je SQL naredbi
+ * izvršeno, da IT pukne kad neka promjena uvede N+1 upite. Akcija se mora izvršiti na istom thread-u
+ * (direktan poziv kontrolera, MockMvc.perform).
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static <T> T assertMaxStatements(long maxStatements, ThrowingSupplier<T> action) throws Throwable {
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.openScope()) {
+            T result = action.get();
+
+            assertThat(scope.getCount())
+                    .as("number of SQL statements")
+                    .isLessThanOrEqualTo(maxStatements);
+
+            return result;
+        }
+    }
+
+    public static long countStatements(ThrowingSupplier<?> action) throws Throwable {
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.openScope()) {
+            action.get();
+
+            return scope.getCount();
+        }
+    }
+}
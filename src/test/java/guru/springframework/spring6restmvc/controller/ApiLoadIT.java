@@ -0,0 +1,274 @@
+package guru.springframework.spring6restmvc.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6restmvc.mappers.BeerMapper;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvc.repositories.CustomerRepository;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test za /api/v1/beer i /api/v1/customer. Aplikacija se digne na pravom (random) portu nad H2 bazom iz
+ * BootstrapData, pa zahtjevi prolaze cijeli put - Tomcat, SpringSecConfig filter chain s basic auth-om, Jackson, JPA.
+ * Latencije se bilježe u HdrHistogram po vrsti operacije, a na kraju se ispiše p50/p99/p999/max i throughput.
+ * <p>
+ * Pokretanje (nije dio običnog mvn test-a): mvn test -Dtest=ApiLoadIT, uz opcionalne system property-je
+ * loadtest.concurrency (8), loadtest.warmupSeconds (5), loadtest.durationSeconds (20) i loadtest.mix, npr.
+ * -Dloadtest.mix=beerList=50,beerGet=50. Klijent je zatvorena petlja (svaki thread šalje idući zahtjev tek nakon
+ * odgovora), pa su repovi latencije pod preopterećenjem podcijenjeni (coordinated omission) - za usporedbu
+ * između commit-a to ne smeta dok su postavke iste.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ApiLoadIT {
+
+    static final String DEFAULT_MIX = "beerList=20,beerSearch=20,beerGet=25,beerPut=5,beerPatch=5," +
+            "customerList=10,customerGet=10,customerPut=3,customerPatch=2";
+
+    static final String[] SEARCH_TERMS = {"IPA", "Ale", "Lager", "Stout", "Porter", "Cat", "City"};
+
+    // najdulja latencija koju histogram pamti, sve iznad se bilježi kao ova vrijednost
+    static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    BeerMapper beerMapper;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    HttpClient httpClient;
+    String authorization;
+    List<BeerDTO> beers;
+    List<UUID> customerIds;
+
+    enum Operation {
+        beerList, beerSearch, beerGet, beerPut, beerPatch, customerList, customerGet, customerPut, customerPatch
+    }
+
+    record OperationStats(Histogram histogram, AtomicLong errors) {
+
+        static OperationStats create() {
+            return new OperationStats(new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3), new AtomicLong());
+        }
+    }
+
+    @Test
+    void loadTest() throws Exception {
+
+        int concurrency = Integer.getInteger("loadtest.concurrency", 8);
+        int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 5);
+        int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 20);
+        Map<Operation, Integer> mix = parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX));
+
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        authorization = "Basic " + Base64.getEncoder().encodeToString(
+                (BeerControllerTest.USERNAME + ":" + BeerControllerTest.PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+        beers = beerRepository.findAll(PageRequest.of(0, 1000)).map(beerMapper::beerToBeerDto).getContent();
+        customerIds = customerRepository.findAll().stream().map(customer -> customer.getId()).toList();
+
+        // zagrijavanje (JIT, connection pool, keševi) - rezultati se bacaju
+        run(mix, concurrency, warmupSeconds);
+
+        long start = System.nanoTime();
+        Map<Operation, OperationStats> stats = run(mix, concurrency, durationSeconds);
+        long elapsedNanos = System.nanoTime() - start;
+
+        System.out.println(report(stats, elapsedNanos, concurrency));
+
+        stats.forEach((operation, operationStats) ->
+                assertThat(operationStats.errors().get()).as("errors for " + operation).isZero());
+        assertThat(stats.values().stream().mapToLong(operationStats -> operationStats.histogram().getTotalCount()).sum())
+                .isGreaterThan(0);
+    }
+
+    Map<Operation, OperationStats> run(Map<Operation, Integer> mix, int concurrency, int durationSeconds) throws InterruptedException {
+
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        mix.keySet().forEach(operation -> stats.put(operation, OperationStats.create()));
+
+        Operation[] weighted = mix.entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                .toArray(Operation[]::new);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    Operation operation = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+                    OperationStats operationStats = stats.get(operation);
+
+                    long requestStart = System.nanoTime();
+                    boolean ok = execute(operation);
+                    long latency = System.nanoTime() - requestStart;
+
+                    operationStats.histogram().recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+
+                    if (!ok) {
+                        operationStats.errors().incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(durationSeconds + 60L, TimeUnit.SECONDS);
+
+        return stats;
+    }
+
+    boolean execute(Operation operation) {
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BeerDTO beer = beers.get(random.nextInt(beers.size()));
+        UUID customerId = customerIds.get(random.nextInt(customerIds.size()));
+
+        try {
+            HttpRequest request = switch (operation) {
+                case beerList -> get(BeerController.BEER_PATH + "?pageNumber=" + (random.nextInt(50) + 1) + "&pageSize=25");
+                case beerSearch -> get(BeerController.BEER_PATH + "?beerName=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]
+                        + "&beerStyle=" + BeerStyle.values()[random.nextInt(BeerStyle.values().length)] + "&pageSize=25");
+                case beerGet -> get(BeerController.BEER_PATH + "/" + beer.getId());
+                case beerPut -> {
+                    BeerDTO update = BeerDTO.builder()
+                            .beerName(beer.getBeerName())
+                            .beerStyle(beer.getBeerStyle())
+                            .upc(beer.getUpc())
+                            .price(BigDecimal.valueOf(random.nextInt(600, 1300), 2))
+                            .quantityOnHand(beer.getQuantityOnHand())
+                            .build();
+                    yield send("PUT", BeerController.BEER_PATH + "/" + beer.getId(), update);
+                }
+                case beerPatch -> send("PATCH", BeerController.BEER_PATH + "/" + beer.getId(),
+                        Map.of("price", BigDecimal.valueOf(random.nextInt(600, 1300), 2)));
+                case customerList -> get(CustomerController.CUSTOMER_PATH);
+                case customerGet -> get(CustomerController.CUSTOMER_PATH + "/" + customerId);
+                case customerPut -> send("PUT", CustomerController.CUSTOMER_PATH + "/" + customerId,
+                        Map.of("name", "Customer " + random.nextInt(1000)));
+                case customerPatch -> send("PATCH", CustomerController.CUSTOMER_PATH + "/" + customerId,
+                        Map.of("name", "Customer " + random.nextInt(1000)));
+            };
+
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+            return response.statusCode() >= 200 && response.statusCode() < 300;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", authorization)
+                .GET()
+                .build();
+    }
+
+    HttpRequest send(String method, String path, Object body) throws Exception {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim()), weight);
+            }
+        }
+
+        return weights;
+    }
+
+    static String report(Map<Operation, OperationStats> stats, long elapsedNanos, int concurrency) {
+
+        double seconds = elapsedNanos / 1e9;
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%nLoad test: %d threads, %.1f s%n", concurrency, seconds));
+        report.append(String.format("%-14s %9s %7s %10s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        long totalErrors = 0;
+
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().histogram();
+            long errors = entry.getValue().errors().get();
+
+            total.add(histogram);
+            totalErrors += errors;
+
+            report.append(line(entry.getKey().name(), histogram, errors, seconds));
+        }
+
+        report.append(line("TOTAL", total, totalErrors, seconds));
+
+        return report.toString();
+    }
+
+    static String line(String name, Histogram histogram, long errors, double seconds) {
+        return String.format("%-14s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name,
+                histogram.getTotalCount(),
+                errors,
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6,
+                histogram.getMaxValue() / 1e6);
+    }
+}
@@ -1,11 +1,20 @@
 package guru.springframework.spring6restmvc.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6restmvc.config.ServiceMetricsAspect;
+import guru.springframework.spring6restmvc.config.SqlStatementCountingFilter;
 import guru.springframework.spring6restmvc.entities.Beer;
 import guru.springframework.spring6restmvc.mappers.BeerMapper;
+import guru.springframework.spring6restmvc.model.BeerBatchResultDTO;
+import guru.springframework.spring6restmvc.model.BeerBatchStatus;
+import guru.springframework.spring6restmvc.model.BeerCursorPageDTO;
 import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerImportJobDTO;
+import guru.springframework.spring6restmvc.model.BeerImportStatus;
 import guru.springframework.spring6restmvc.model.BeerStyle;
 import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.hamcrest.core.IsNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -13,23 +22,32 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.file.AccessDeniedException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Map;
 import java.util.UUID;
 
+import static guru.springframework.spring6restmvc.config.SqlStatementAssertions.assertMaxStatements;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -45,6 +63,9 @@ class BeerControllerIT {
     @Autowired
     BeerController beerController;
 
+    @Autowired
+    BeerImportController beerImportController;
+
     @Autowired
     BeerRepository beerRepository;
 
@@ -57,11 +78,18 @@ class BeerControllerIT {
     @Autowired
     WebApplicationContext wac;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    SqlStatementCountingFilter sqlStatementCountingFilter;
+
     MockMvc mockMvc;
 
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.webAppContextSetup(wac)
+                .addFilters(sqlStatementCountingFilter)
                 .apply(springSecurity())
                 .build();  //podešava MockMvc environment sa SpringDataRepositorijem
     }
@@ -153,6 +181,44 @@ class BeerControllerIT {
                 .andExpect(jsonPath("$.content.size()", is(548)));
     }
 
+    @Test
+    void testListBeersByNameWithoutTotal() throws Exception {
+        mockMvc.perform(get(BeerController.BEER_PATH)
+                        .with(httpBasic(BeerControllerTest.USERNAME, BeerControllerTest.PASSWORD))
+                        .queryParam("beerName", "IPA")
+                        .queryParam("includeTotal", "false")
+                        .queryParam("pageSize", "800"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(336)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void testListBeersByCursorAllPages() {
+
+        // prolazimo cijeli IPA stil stranicu po stranicu preko cursora, moramo dobiti sve zapise točno jednom
+        Set<UUID> ids = new HashSet<>();
+        String cursor = "";
+        BeerCursorPageDTO page;
+
+        do {
+            page = beerController.listBeersByCursor(null, BeerStyle.IPA, false, cursor, 100);
+            page.getContent().forEach(beerDTO -> ids.add(beerDTO.getId()));
+            cursor = page.getNextCursor();
+        } while (page.isHasNext());
+
+        assertThat(ids.size()).isEqualTo(548);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void testListBeersByCursorInvalidCursor() throws Exception {
+        mockMvc.perform(get(BeerController.BEER_PATH)
+                        .with(httpBasic(BeerControllerTest.USERNAME, BeerControllerTest.PASSWORD))
+                        .queryParam("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Disabled // just for demo purposes
     @Test
     void testUpdateBeerBadVersion() throws Exception {
@@ -219,6 +285,53 @@ class BeerControllerIT {
 
     }
 
+    @Test
+    void testPatchBeerSingleUpdateStatement() throws Throwable {
+        Beer beer = beerRepository.save(Beer.builder()
+                .beerName("Patch Price")
+                .beerStyle(BeerStyle.IPA)
+                .upc("778899")
+                .price(new BigDecimal("5.00"))
+                .build());
+
+        // PATCH ide u svojoj transakciji (bez @Transactional na testu), pa pivo brišemo sami - inače ostaje ostalim testovima
+        try {
+            // PATCH cijene = samo UPDATE, bez SELECT-a prije
+            assertMaxStatements(1, () -> beerController.updateBeerPatchById(beer.getId(),
+                    BeerDTO.builder().price(new BigDecimal("6.50")).build()));
+
+            Beer patchedBeer = beerRepository.findById(beer.getId()).orElseThrow();
+
+            assertThat(patchedBeer.getPrice()).isEqualByComparingTo("6.50");
+            assertThat(patchedBeer.getBeerName()).isEqualTo("Patch Price");
+            assertThat(patchedBeer.getVersion()).isEqualTo(beer.getVersion() == null ? 1 : beer.getVersion() + 1);
+        } finally {
+            beerRepository.deleteById(beer.getId());
+        }
+    }
+
+    @Test
+    void testPatchBeerStaleVersion() throws Exception {
+        Beer beer = beerRepository.findAll().get(0);
+
+        Map<String, Object> beerMap = new HashMap<>();
+        beerMap.put("price", "9.99");
+        beerMap.put("version", beer.getVersion() == null ? -1 : beer.getVersion() - 1);
+
+        mockMvc.perform(patch(BeerController.BEER_PATH_ID, beer.getId())
+                        .with(httpBasic(BeerControllerTest.USERNAME, BeerControllerTest.PASSWORD))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(beerMap)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testPatchBeerNotFound() {
+        assertThrows(NotFoundException.class, () -> {
+            beerController.updateBeerPatchById(UUID.randomUUID(), BeerDTO.builder().price(BigDecimal.TEN).build());
+        });
+    }
+
 
     @Test
     void testDeleteByIDNotFound () {
@@ -298,6 +411,147 @@ class BeerControllerIT {
 
     }
 
+    @Rollback
+    @Transactional
+    @Test
+    void testBatchCreateAndUpdate() {
+        Beer beer = beerRepository.findAll().get(0);
+
+        BeerDTO update = beerMapper.beerToBeerDTO(beer);
+        update.setPrice(new BigDecimal("99.99"));
+
+        BeerDTO newBeer = BeerDTO.builder()
+                .beerName("Batch Beer")
+                .beerStyle(BeerStyle.LAGER)
+                .upc("123123")
+                .price(new BigDecimal("5.99"))
+                .build();
+
+        BeerDTO invalidBeer = BeerDTO.builder().beerName("No price").build();
+
+        BeerDTO unknownBeer = beerMapper.beerToBeerDTO(beer);
+        unknownBeer.setId(UUID.randomUUID());
+
+        ResponseEntity<List<BeerBatchResultDTO>> responseEntity =
+                beerController.handleBatch(List.of(update, newBeer, invalidBeer, unknownBeer));
+
+        List<BeerBatchResultDTO> results = responseEntity.getBody();
+
+        assertThat(results).extracting(BeerBatchResultDTO::getStatus).containsExactly(
+                BeerBatchStatus.UPDATED, BeerBatchStatus.CREATED, BeerBatchStatus.INVALID, BeerBatchStatus.NOT_FOUND);
+        assertThat(results.get(2).getErrors()).isNotEmpty();
+
+        assertThat(beerRepository.findById(beer.getId()).get().getPrice()).isEqualByComparingTo("99.99");
+        assertThat(beerRepository.findById(results.get(1).getId())).isPresent();
+    }
+
+    @Test
+    void testImportCsv() throws Exception {
+
+        String csv = "\"row\",\"count.x\",\"beer\",\"style\"\n" +
+                "\"9001\",5,\"Import Test Lager\",\"American Pale Lager\"\n" +
+                "\"9002\",7,\"Import Test Stout\",\"Oatmeal Stout\"\n" +
+                "\"9003\",1,\"\",\"American Porter\"\n";   // prazno ime - ne prolazi validaciju
+
+        MockMultipartFile file = new MockMultipartFile("file", "import-test.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+
+        MvcResult result = mockMvc.perform(multipart(BeerImportController.BEER_IMPORT_PATH)
+                        .file(file)
+                        .with(httpBasic(BeerControllerTest.USERNAME, BeerControllerTest.PASSWORD)))
+                .andExpect(status().isAccepted())
+                .andReturn();
+
+        UUID jobId = UUID.fromString(objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText());
+
+        try {
+            // import se izvršava na beerImportExecutor-u, pa čekamo da job završi
+            BeerImportJobDTO job = beerImportController.getImportJob(jobId);
+
+            for (int i = 0; i < 100 && (job.getStatus() == BeerImportStatus.QUEUED || job.getStatus() == BeerImportStatus.RUNNING); i++) {
+                Thread.sleep(100);
+                job = beerImportController.getImportJob(jobId);
+            }
+
+            assertThat(job.getStatus()).isEqualTo(BeerImportStatus.COMPLETED);
+            assertThat(job.getRowsProcessed()).isEqualTo(3);
+            assertThat(job.getRowsImported()).isEqualTo(2);
+            assertThat(job.getErrorCount()).isEqualTo(1);
+            assertThat(job.getErrors()).hasSize(1);
+
+            assertThat(beerRepository.findAllByBeerNameIsLikeIgnoreCase("Import Test%", Pageable.unpaged()))
+                    .extracting(Beer::getBeerStyle)
+                    .containsExactlyInAnyOrder(BeerStyle.LAGER, BeerStyle.STOUT);
+        } finally {
+            // import nije u transakciji testa, pa sami brišemo piva da ne utječu na count() u drugim testovima
+            beerRepository.deleteAll(beerRepository.findAllByBeerNameIsLikeIgnoreCase("Import Test%", Pageable.unpaged()));
+        }
+    }
+
+    @Test
+    void testListBeersRecordsMetrics() {
+
+        beerController.listBeers("IPA", BeerStyle.IPA, false, 1, 25);
+
+        Timer listTimer = meterRegistry.find(ServiceMetricsAspect.BEER_LIST_TIMER).tag("filter", "both").timer();
+        Timer serviceTimer = meterRegistry.find(ServiceMetricsAspect.SERVICE_TIMER).tag("method", "listBeers").timer();
+
+        assertThat(listTimer).isNotNull();
+        assertThat(listTimer.count()).isGreaterThan(0);
+        assertThat(serviceTimer).isNotNull();
+    }
+
+    @Test
+    void testListBeersStatementCount() throws Throwable {
+
+        // jedna stranica = SELECT stranice + (najviše) COUNT - svaki dodatni upit po pivu bi bio N+1
+        Page<BeerDTO> page = assertMaxStatements(2, () ->
+                beerController.listBeers(null, BeerStyle.IPA, true, 1, 50));
+
+        assertThat(page.getContent()).hasSize(50);
+
+        // request kroz MockMvc prolazi i kroz SqlStatementCountingFilter
+        MvcResult result = mockMvc.perform(get(BeerController.BEER_PATH)
+                        .with(httpBasic(BeerControllerTest.USERNAME, BeerControllerTest.PASSWORD))
+                        .queryParam("beerStyle", BeerStyle.IPA.name())
+                        .queryParam("pageSize", "50"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat((Long) result.getRequest().getAttribute(SqlStatementCountingFilter.STATEMENT_COUNT_ATTRIBUTE))
+                .isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void testListBeersProjectionWithoutInventory() {
+
+        Page<BeerDTO> page = beerController.listBeers("IPA", null, false, 1, 25);
+
+        BeerDTO first = page.getContent().get(0);
+
+        // projekcija puni sve ostale stupce, a inventory ostaje samo u bazi
+        assertThat(first.getId()).isNotNull();
+        assertThat(first.getVersion()).isNotNull();
+        assertThat(first.getBeerName()).containsIgnoringCase("IPA");
+        assertThat(first.getPrice()).isNotNull();
+        assertThat(first.getQuantityOnHand()).isNull();
+        assertThat(beerRepository.findById(first.getId()).get().getQuantityOnHand()).isNotNull();
+    }
+
+    @Test
+    void testStreamBeersByStyleNdjson() throws Exception {
+        ResponseEntity<StreamingResponseBody> responseEntity =
+                beerController.streamBeers(null, BeerStyle.IPA, false, null);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(outputStream);
+
+        // NDJSON - jedno pivo po liniji, isti filter kao testListBeersByStyle, a bez inventory-ja
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length).isEqualTo(548);
+        assertThat(objectMapper.readTree(lines[0]).get("quantityOnHand").isNull()).isTrue();
+    }
+
     @Test
     void testBeerIdNotFound() {
 
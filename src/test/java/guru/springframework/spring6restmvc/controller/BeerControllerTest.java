@@ -27,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -141,6 +142,8 @@ class BeerControllerTest {
         Map<String, Object> beerMap = new HashMap<>();
         beerMap.put("beerName", "New Name");
 
+        given(beerService.patchBeerById(any(), any())).willReturn(true);
+
         // i ovo ćemo refaktorirati
         // mockMvc.perform(patch(BeerController.BEER_PATH + "/" + beer.getId())
         mockMvc.perform(patch(BeerController.BEER_PATH_ID , beer.getId())  //sad će se beer.getId() bindati u BEER_PATH_ID automatski, jer postoji overload-ana patch metoda koja može prihvatiti i ovakav način predaje argumenata
@@ -234,6 +237,19 @@ class BeerControllerTest {
         // ovo nam ne treba za test "blank name" verify(beerService).updateBeerById(any(UUID.class), any(BeerDTO.class));
     }
 
+    @Test
+    void testBatchNullElement() throws Exception {
+
+        mockMvc.perform(post(BeerController.BEER_BATCH_PATH)
+                        .with(httpBasic(USERNAME, PASSWORD))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[null]"))
+                .andExpect(status().isBadRequest());
+
+        verify(beerService, never()).saveBeersInBatch(any());
+    }
+
     @Test
     void testListBeers() throws Exception {
         given(beerService.listBeers(any(), any(), any(), any(), any())).willReturn(beerServiceImpl.listBeers(null, null, false, 1, 25));
@@ -0,0 +1,225 @@
+package guru.springframework.spring6restmvc.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.entities.BeerOrderLine;
+import guru.springframework.spring6restmvc.entities.Customer;
+import guru.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import guru.springframework.spring6restmvc.model.BeerOrderDTO;
+import guru.springframework.spring6restmvc.model.BeerOrderLineCreateDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.repositories.BeerOrderLineRepository;
+import guru.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvc.repositories.CustomerRepository;
+import guru.springframework.spring6restmvc.services.BeerOrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+class BeerOrderControllerIT {
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerOrderLineRepository beerOrderLineRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    WebApplicationContext wac;
+
+    MockMvc mockMvc;
+
+    List<UUID> savedBeerIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(wac)
+                .apply(springSecurity())
+                .build();
+    }
+
+    // narudžbe, stavke i piva iz testa su commitani, pa ih brišemo - inače ostaju ostalim IT-ovima
+    // (npr. customerRepository.deleteAll() pukne na FK beer_order.customer_id, a piva kvare brojeve u listama piva)
+    @AfterEach
+    void tearDown() {
+        List<BeerOrderLine> lines = beerOrderLineRepository.findAll().stream()
+                .filter(line -> savedBeerIds.contains(line.getBeer().getId()))
+                .toList();
+
+        List<UUID> lineIds = lines.stream().map(BeerOrderLine::getId).toList();
+
+        Set<UUID> orderIds = lines.stream()
+                .map(line -> line.getBeerOrder().getId())
+                .collect(Collectors.toSet());
+
+        beerOrderLineRepository.deleteAllByIdInBatch(lineIds);
+        beerOrderRepository.deleteAllByIdInBatch(orderIds);
+        beerRepository.deleteAllById(savedBeerIds);
+    }
+
+    @Test
+    void testCreateOrderAllocatesInventory() throws Exception {
+        Beer beer = saveBeer(10);
+
+        String response = mockMvc.perform(post(BeerOrderController.BEER_ORDER_PATH)
+                        .with(httpBasic(BeerControllerTest.USERNAME, BeerControllerTest.PASSWORD))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order(beer.getId(), 4))))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.beerOrderLines[0].quantityAllocated", is(4)))
+                .andReturn().getResponse().getContentAsString();
+
+        BeerOrderDTO savedOrder = objectMapper.readValue(response, BeerOrderDTO.class);
+
+        mockMvc.perform(get(BeerOrderController.BEER_ORDER_PATH_ID, savedOrder.getId())
+                        .with(httpBasic(BeerControllerTest.USERNAME, BeerControllerTest.PASSWORD))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.beerOrderLines.length()", is(1)));
+
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(6);
+    }
+
+    @Test
+    void testCreateOrderInsufficientInventory() {
+        Beer beer = saveBeer(3);
+
+        BeerOrderDTO savedOrder = beerOrderService.createOrder(order(beer.getId(), 5));
+
+        assertThat(savedOrder.getBeerOrderLines().get(0).getQuantityAllocated()).isZero();
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(3);
+    }
+
+    @Test
+    void testCreateOrderUnknownBeer() throws Exception {
+        mockMvc.perform(post(BeerOrderController.BEER_ORDER_PATH)
+                        .with(httpBasic(BeerControllerTest.USERNAME, BeerControllerTest.PASSWORD))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order(UUID.randomUUID(), 1))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetOrderNotFound() throws Exception {
+        mockMvc.perform(get(BeerOrderController.BEER_ORDER_PATH_ID, UUID.randomUUID())
+                        .with(httpBasic(BeerControllerTest.USERNAME, BeerControllerTest.PASSWORD)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testConcurrentOrdersDoNotOverAllocate() throws Exception {
+        Beer beer = saveBeer(10);
+
+        // 20 narudžbi po 1 komad na pivo sa zalihom 10 - točno 10 mora dobiti alokaciju, ništa se ne smije izgubiti
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<BeerOrderDTO>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            futures.add(executor.submit(() -> beerOrderService.createOrder(order(beer.getId(), 1))));
+        }
+
+        int allocated = 0;
+        for (Future<BeerOrderDTO> future : futures) {
+            allocated += future.get().getBeerOrderLines().get(0).getQuantityAllocated();
+        }
+        executor.shutdown();
+
+        assertThat(allocated).isEqualTo(10);
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isZero();
+    }
+
+    @Test
+    void testStaleBeerUpdateKeepsAllocation() {
+        Beer beer = saveBeer(10);
+
+        // alokacija podiže verziju, pa update piva učitanog prije nje pukne umjesto da vrati stari quantityOnHand
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            Beer staleBeer = beerRepository.findById(beer.getId()).orElseThrow();
+
+            // narudžba se commita u drugoj transakciji dok ova drži stari quantityOnHand (10)
+            CompletableFuture.runAsync(() -> beerOrderService.createOrder(order(beer.getId(), 4))).join();
+
+            staleBeer.setPrice(new BigDecimal("4.99"));
+        }));
+
+        Beer updatedBeer = beerRepository.findById(beer.getId()).orElseThrow();
+
+        assertThat(updatedBeer.getPrice()).isEqualByComparingTo("3.99");
+        assertThat(updatedBeer.getQuantityOnHand()).isEqualTo(6);
+        assertThat(updatedBeer.getVersion()).isEqualTo(beer.getVersion() + 1);
+    }
+
+    private BeerOrderCreateDTO order(UUID beerId, int quantity) {
+        Customer customer = customerRepository.findAll().get(0);
+
+        return BeerOrderCreateDTO.builder()
+                .customerId(customer.getId())
+                .customerRef("IT order")
+                .beerOrderLines(List.of(BeerOrderLineCreateDTO.builder()
+                        .beerId(beerId)
+                        .orderQuantity(quantity)
+                        .build()))
+                .build();
+    }
+
+    private Beer saveBeer(int quantityOnHand) {
+        Beer beer = beerRepository.save(Beer.builder()
+                .beerName("Order IT " + quantityOnHand)
+                .beerStyle(BeerStyle.LAGER)
+                .upc("123123")
+                .price(new BigDecimal("3.99"))
+                .quantityOnHand(quantityOnHand)
+                .build());
+
+        savedBeerIds.add(beer.getId());
+
+        return beer;
+    }
+}
@@ -3,7 +3,11 @@ package guru.springframework.spring6restmvc.controller;
 import guru.springframework.spring6restmvc.entities.Customer;
 import guru.springframework.spring6restmvc.mappers.CustomerMapper;
 import guru.springframework.spring6restmvc.model.CustomerDTO;
+import guru.springframework.spring6restmvc.repositories.BeerOrderLineRepository;
+import guru.springframework.spring6restmvc.repositories.BeerOrderRepository;
 import guru.springframework.spring6restmvc.repositories.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -11,7 +15,10 @@ import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,12 +31,21 @@ class CustomerControllerIT {
     @Autowired
     CustomerRepository customerRepository;
 
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerOrderLineRepository beerOrderLineRepository;
+
     @Autowired
     CustomerController customerController;
 
     @Autowired
     CustomerMapper customerMapper;
 
+    @Autowired
+    EntityManager entityManager;
+
     @Rollback
     @Transactional
     @Test
@@ -42,6 +58,18 @@ class CustomerControllerIT {
         assertThat(customerRepository.findById(customer.getId()).isEmpty());
     }
 
+    @Test
+    void testStreamAllCustomersNdjson() throws Exception {
+        ResponseEntity<StreamingResponseBody> responseEntity = customerController.streamAllCustomers(null);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(outputStream);
+
+        // NDJSON - jedan customer po liniji
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length).isEqualTo(customerRepository.count());
+    }
+
     @Test
     void testDeleteNotFound() {
         assertThrows(NotFoundException.class, () -> {
@@ -98,6 +126,9 @@ class CustomerControllerIT {
     @Transactional
     @Test
     void testListAllEmptyList() {
+        // narudžbe referenciraju kupce (beer_order.customer_id), pa idu prve - rollback ih ionako vraća
+        beerOrderLineRepository.deleteAllInBatch();
+        beerOrderRepository.deleteAllInBatch();
         customerRepository.deleteAll();
         List<CustomerDTO> dtos = customerController.listAllCustomers();
 
@@ -124,13 +155,39 @@ class CustomerControllerIT {
         CustomerDTO customerDTO = customerController.getCustomerById(customer.getId());
         assertThat(customerDTO).isNotNull();
     }
-}
-
-
 
+    @Rollback
+    @Transactional
+    @Test
+    void testPatchCustomerName() {
+        Customer customer = customerRepository.findAll().get(0);
 
+        ResponseEntity responseEntity = customerController.patchCustomerById(customer.getId(),
+                CustomerDTO.builder().name("PATCHED").build());
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
 
+        // bulk UPDATE ne osvježava entitete u persistence contextu
+        entityManager.clear();
 
+        Customer patchedCustomer = customerRepository.findById(customer.getId()).orElseThrow();
+        assertThat(patchedCustomer.getName()).isEqualTo("PATCHED");
+        assertThat(patchedCustomer.getVersion()).isEqualTo(customer.getVersion() + 1);
+        assertThat(patchedCustomer.getUpdateDate()).isNotNull();
+    }
 
+    @Test
+    void testPatchCustomerBlankName() {
+        Customer customer = customerRepository.findAll().get(0);
 
+        assertThrows(ConstraintViolationException.class, () -> {
+            customerController.patchCustomerById(customer.getId(), CustomerDTO.builder().name(" ").build());
+        });
+    }
 
+    @Test
+    void testPatchCustomerNotFound() {
+        assertThrows(NotFoundException.class, () -> {
+            customerController.patchCustomerById(UUID.randomUUID(), CustomerDTO.builder().name("PATCHED").build());
+        });
+    }
+}
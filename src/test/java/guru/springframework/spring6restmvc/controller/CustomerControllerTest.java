@@ -73,6 +73,8 @@ class CustomerControllerTest {
         Map<String, Object> customerMap = new HashMap<>();  // napravit ćemo HashMap iz koga ćemo simulirati JSON objekt
         customerMap.put("name", "New Name");
 
+        given(customerService.patchCustomerById(any(), any())).willReturn(true);
+
         // refactoring
         // mockMvc.perform(patch(CustomerController.CUSTOMER_PATH+ "/" + customer.getId())
         mockMvc.perform(patch(CustomerController.CUSTOMER_PATH_ID, customer.getId())
@@ -0,0 +1,62 @@
+package guru.springframework.spring6restmvc.repositories;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.model.BeerProjection;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// FULLTEXT (ngram) indeks postoji samo na MySQL-u: Flyway migracije + bootstrap CSV piva u MySQL kontejneru
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = "logging.level.org.hibernate.orm.jdbc.bind=info")
+@ActiveProfiles("localmysql")
+class BeerRepositoryFullTextIT {
+
+    @Container
+    static MySQLContainer<?> mySQLContainer = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void mySqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mySQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", mySQLContainer::getUsername);
+        registry.add("spring.datasource.password", mySQLContainer::getPassword);
+    }
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    // "in" je i sam stopword, a "IPA"/"Pale" sadrže jednoslovne stopword-e ("a", "i")
+    @ParameterizedTest
+    @ValueSource(strings = {"IPA", "Pale", "Ale", "in", "Sun", "Stout"})
+    void testFullTextReturnsSameBeersAsLike(String beerName) {
+        PageRequest allRows = PageRequest.of(0, 10_000);
+
+        Set<UUID> likeIds = beerRepository.findBeerProjectionsWithoutInventory("%" + beerName + "%", null, allRows)
+                .map(BeerProjection::id)
+                .toSet();
+
+        Set<UUID> fullTextIds = beerRepository.findSliceByBeerNameFullText("\"" + beerName + "\"", "%" + beerName + "%", allRows)
+                .stream()
+                .map(Beer::getId)
+                .collect(Collectors.toSet());
+
+        assertThat(likeIds).isNotEmpty();
+        assertThat(fullTextIds).isEqualTo(likeIds);
+        assertThat(beerRepository.countByBeerNameFullText("\"" + beerName + "\"", "%" + beerName + "%"))
+                .isEqualTo(likeIds.size());
+    }
+}
@@ -2,6 +2,7 @@ package guru.springframework.spring6restmvc.repositories;
 
 import guru.springframework.spring6restmvc.bootstrap.BootstrapData;
 import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.mappers.BeerCsvRecordConverter;
 import guru.springframework.spring6restmvc.model.BeerStyle;
 import guru.springframework.spring6restmvc.services.BeerCsvServiceImpl;
 import jakarta.validation.ConstraintViolationException;
@@ -19,12 +20,34 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
-@Import({BootstrapData.class, BeerCsvServiceImpl.class})  //da dobijemo actual podatke, "vežemo" se na  BeerCsvServiceImpl, koja je vec importirala podatke iz baze
+@Import({BootstrapData.class, BeerCsvServiceImpl.class, BeerCsvRecordConverter.class})  //da dobijemo actual podatke, "vežemo" se na  BeerCsvServiceImpl, koja je vec importirala podatke iz baze
 class BeerRepositoryTest {
 
     @Autowired
     BeerRepository beerRepository;
 
+    @Test
+    void testSavedBeerIdsAreTimeOrdered() {
+
+        Beer first = beerRepository.saveAndFlush(newBeer("Time Ordered 1"));
+        Beer second = beerRepository.saveAndFlush(newBeer("Time Ordered 2"));
+
+        // UUID v7 - binary(16) kolona ih sortira po bajtovima, a to je isto što i unsigned usporedba msb pa lsb
+        assertThat(first.getId().version()).isEqualTo(7);
+        assertThat(Long.compareUnsigned(second.getId().getMostSignificantBits(), first.getId().getMostSignificantBits()))
+                .isPositive();
+        assertThat(beerRepository.findById(second.getId())).isPresent();
+    }
+
+    private Beer newBeer(String beerName) {
+        return Beer.builder()
+                .beerName(beerName)
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("2323232323")
+                .price(new BigDecimal("11.99"))
+                .build();
+    }
+
     @Test
     void testGetBeerListByName() {
 
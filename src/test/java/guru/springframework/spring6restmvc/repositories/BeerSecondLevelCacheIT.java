@@ -0,0 +1,56 @@
+package guru.springframework.spring6restmvc.repositories;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static guru.springframework.spring6restmvc.config.SqlStatementAssertions.countStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// second-level cache je po defaultu isključen, ovdje ga uključujemo za cijeli context
+@SpringBootTest(properties = "app.jpa.second-level-cache.enabled=true")
+class BeerSecondLevelCacheIT {
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void testFindByIdHitsSecondLevelCache() throws Throwable {
+        UUID beerId = beerRepository.findAll(PageRequest.of(0, 1)).getContent().get(0).getId();
+
+        // prvo čitanje puni keš, drugo (nova transakcija, novi persistence context) ne ide u bazu
+        long firstLoad = countStatements(() -> transactionTemplate.execute(status -> loadWithCategories(beerId)));
+        long secondLoad = countStatements(() -> transactionTemplate.execute(status -> loadWithCategories(beerId)));
+
+        assertThat(firstLoad).isPositive();
+        assertThat(secondLoad).isZero();
+    }
+
+    @Test
+    void testUpdateRefreshesCachedBeer() {
+        UUID beerId = beerRepository.findAll(PageRequest.of(0, 1)).getContent().get(0).getId();
+
+        transactionTemplate.execute(status -> beerRepository.findById(beerId).orElseThrow());
+
+        transactionTemplate.executeWithoutResult(status ->
+                beerRepository.findById(beerId).orElseThrow().setBeerName("Second Level Cache"));
+
+        String beerName = transactionTemplate.execute(status -> beerRepository.findById(beerId).orElseThrow().getBeerName());
+
+        assertThat(beerName).isEqualTo("Second Level Cache");
+    }
+
+    private Beer loadWithCategories(UUID beerId) {
+        Beer beer = beerRepository.findById(beerId).orElseThrow();
+        beer.getCategories().size();
+        return beer;
+    }
+}
@@ -0,0 +1,50 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerCountCacheTest {
+
+    BeerCountCache beerCountCache = new BeerCountCache(Duration.ofMinutes(1));
+
+    @Test
+    void testCountCached() {
+        AtomicInteger queries = new AtomicInteger();
+
+        beerCountCache.getCount("Galaxy", BeerStyle.IPA, () -> queries.incrementAndGet());
+        long count = beerCountCache.getCount("galaxy", BeerStyle.IPA, () -> queries.incrementAndGet());
+
+        assertThat(count).isEqualTo(1);
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void testInvalidateDuringCountQueryNotCached() {
+        AtomicInteger queries = new AtomicInteger();
+
+        // upis (invalidateAll) stigne dok COUNT još traje - njegov rezultat ne smije ostati u kešu
+        beerCountCache.getCount("Galaxy", null, () -> {
+            beerCountCache.invalidateAll();
+            return queries.incrementAndGet();
+        });
+
+        long count = beerCountCache.getCount("Galaxy", null, () -> queries.incrementAndGet());
+
+        assertThat(count).isEqualTo(2);
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void testInvalidateAll() {
+        beerCountCache.getCount(null, BeerStyle.LAGER, () -> 10);
+
+        beerCountCache.invalidateAll();
+
+        assertThat(beerCountCache.getCount(null, BeerStyle.LAGER, () -> 11)).isEqualTo(11);
+    }
+}
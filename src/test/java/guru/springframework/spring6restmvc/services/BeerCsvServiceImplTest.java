@@ -1,12 +1,16 @@
 package guru.springframework.spring6restmvc.services;
 
 import guru.springframework.spring6restmvc.model.BeerCSVRecord;
+import guru.springframework.spring6restmvc.model.BeerCsvRow;
 import org.junit.jupiter.api.Test;
 import org.springframework.util.ResourceUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -28,4 +32,65 @@ class BeerCsvServiceImplTest {
         assertThat(recs.size()).isGreaterThan(0);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamCSV() throws FileNotFoundException {
+
+        File file = ResourceUtils.getFile("classpath:csvdata/beers.csv");
+
+        List<BeerCSVRecord> recs = beerCsvService.convertCSV(file);
+
+        try (Stream<BeerCSVRecord> records = beerCsvService.streamCSV(file.toPath())) {
+
+            List<BeerCSVRecord> streamed = records.toList();
+
+            assertThat(streamed.size()).isEqualTo(recs.size());
+            assertThat(streamed.get(0).getBeer()).isEqualTo(recs.get(0).getBeer());
+            assertThat(streamed.get(streamed.size() - 1).getRow()).isEqualTo(recs.get(recs.size() - 1).getRow());
+        }
+    }
+
+    @Test
+    void convertCSVWithConsumer() throws FileNotFoundException {
+
+        File file = ResourceUtils.getFile("classpath:csvdata/beers.csv");
+
+        AtomicLong consumed = new AtomicLong();
+
+        long count = beerCsvService.convertCSV(new FileInputStream(file), record -> consumed.incrementAndGet());
+
+        assertThat(count).isGreaterThan(0);
+        assertThat(consumed.get()).isEqualTo(count);
+    }
+
+    @Test
+    void convertCSVParallel() throws FileNotFoundException {
+
+        File file = ResourceUtils.getFile("classpath:csvdata/beers.csv");
+
+        List<BeerCSVRecord> recs = beerCsvService.convertCSV(file);
+        List<BeerCsvRow> rows = beerCsvService.convertCSVParallel(file.toPath());
+
+        assertThat(rows.size()).isEqualTo(recs.size());
+
+        // brzi parser mora dati iste vrijednosti kao opencsv, samo s NA/NaN umjesto null/"NA"
+        for (int i = 0; i < recs.size(); i++) {
+            BeerCSVRecord rec = recs.get(i);
+            BeerCsvRow row = rows.get(i);
+
+            assertThat(row.row()).isEqualTo(rec.getRow());
+            assertThat(row.count()).isEqualTo(rec.getCount());
+            assertThat(row.beer()).isEqualTo(rec.getBeer());
+            assertThat(row.style()).isEqualTo(rec.getStyle());
+            assertThat(row.ounces()).isEqualTo(rec.getOunces());
+            assertThat(row.label()).isEqualTo(rec.getLabel());
+            // NaN != NaN, pa isEqualTo(Double.NaN) nikad ne prolazi
+            if ("NA".equals(rec.getAbv())) {
+                assertThat(row.abv()).isNaN();
+            } else {
+                assertThat(row.abv()).isEqualTo(Double.parseDouble(rec.getAbv()));
+            }
+            assertThat(row.ibu()).isEqualTo("NA".equals(rec.getIbu()) ? BeerCsvRow.NA : Integer.parseInt(rec.getIbu()));
+        }
+    }
+}
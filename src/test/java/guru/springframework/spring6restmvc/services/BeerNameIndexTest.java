@@ -0,0 +1,84 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerNameIndexTest {
+
+    BeerNameIndex beerNameIndex;
+
+    UUID galaxyCat = UUID.randomUUID();
+    UUID crank = UUID.randomUUID();
+    UUID sunshineIpa = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        beerNameIndex = new BeerNameIndex(null);  // repozitorij treba samo za rebuild()
+
+        beerNameIndex.upsert(galaxyCat, "Galaxy Cat", BeerStyle.PALE_ALE);
+        beerNameIndex.upsert(crank, "Crank", BeerStyle.PALE_ALE);
+        beerNameIndex.upsert(sunshineIpa, "Sunshine City IPA", BeerStyle.IPA);
+    }
+
+    @Test
+    void testSearchBySubstring() {
+        BeerNameIndex.SearchResult result = beerNameIndex.search("ity", null, 0, 25);
+
+        assertThat(result.ids()).containsExactly(sunshineIpa);
+        assertThat(result.total()).isEqualTo(1);
+    }
+
+    @Test
+    void testSearchShortQueryAndStyleFacet() {
+        BeerNameIndex.SearchResult result = beerNameIndex.search("a", BeerStyle.PALE_ALE, 0, 25);
+
+        // sortirano po imenu
+        assertThat(result.ids()).containsExactly(crank, galaxyCat);
+    }
+
+    @Test
+    void testUpsertAndDelete() {
+        beerNameIndex.upsert(crank, "Crank IPA", BeerStyle.IPA);
+
+        assertThat(beerNameIndex.search("ipa", BeerStyle.IPA, 0, 25).ids()).containsExactly(crank, sunshineIpa);
+        assertThat(beerNameIndex.search(null, BeerStyle.PALE_ALE, 0, 25).ids()).containsExactly(galaxyCat);
+
+        beerNameIndex.delete(sunshineIpa);
+
+        assertThat(beerNameIndex.search("ipa", null, 0, 25).ids()).containsExactly(crank);
+    }
+
+    @Test
+    void testPagingByName() {
+        Map<String, UUID> lagers = new HashMap<>();
+
+        // upisujemo obrnutim redom, da poredak ne dolazi iz redoslijeda upisa
+        for (int i = 29; i >= 0; i--) {
+            String name = String.format("Lager %02d", i);
+            lagers.put(name, UUID.randomUUID());
+            beerNameIndex.upsert(lagers.get(name), name, BeerStyle.LAGER);
+        }
+
+        BeerNameIndex.SearchResult result = beerNameIndex.search("lager", null, 10, 5);
+
+        assertThat(result.ids()).containsExactly(lagers.get("Lager 10"), lagers.get("Lager 11"),
+                lagers.get("Lager 12"), lagers.get("Lager 13"), lagers.get("Lager 14"));
+        assertThat(result.total()).isEqualTo(30);
+        assertThat(beerNameIndex.search("lager", null, 40, 5).ids()).isEmpty();
+    }
+
+    @Test
+    void testPaging() {
+        BeerNameIndex.SearchResult result = beerNameIndex.search(null, BeerStyle.PALE_ALE, 1, 1);
+
+        assertThat(result.ids()).containsExactly(galaxyCat);
+        assertThat(result.total()).isEqualTo(2);
+    }
+}
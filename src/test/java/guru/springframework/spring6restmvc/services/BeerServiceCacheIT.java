@@ -0,0 +1,81 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.config.CacheConfig;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static guru.springframework.spring6restmvc.config.SqlStatementAssertions.countStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BeerServiceCacheIT {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    UUID beerId;
+
+    @BeforeEach
+    void setUp() {
+        beerId = beerRepository.findAll(PageRequest.of(0, 1)).getContent().get(0).getId();
+        cacheManager.getCache(CacheConfig.BEER_CACHE).evict(beerId);
+    }
+
+    @Test
+    void testGetBeerByIdServedFromCache() throws Throwable {
+        BeerDTO first = beerService.getBeerById(beerId).orElseThrow();
+
+        long statements = countStatements(() -> beerService.getBeerById(beerId));
+
+        assertThat(statements).isZero();
+        assertThat(beerService.getBeerById(beerId).orElseThrow()).isEqualTo(first);
+    }
+
+    @Test
+    void testCachedBeerIsCopiedForEveryCaller() {
+        BeerDTO first = beerService.getBeerById(beerId).orElseThrow();
+        Integer quantityOnHand = first.getQuantityOnHand();
+
+        // izmjena vraćenog DTO-a ne smije završiti u kešu
+        first.setQuantityOnHand(null);
+
+        BeerDTO second = beerService.getBeerById(beerId).orElseThrow();
+        second.setBeerName("Changed By Caller");
+
+        BeerDTO third = beerService.getBeerById(beerId).orElseThrow();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(third).isNotSameAs(second);
+        assertThat(third.getQuantityOnHand()).isEqualTo(quantityOnHand);
+        assertThat(third.getBeerName()).isNotEqualTo("Changed By Caller");
+    }
+
+    @Test
+    void testPatchEvictsCachedBeer() {
+        BigDecimal price = beerService.getBeerById(beerId).orElseThrow().getPrice();
+
+        try {
+            beerService.patchBeerById(beerId, BeerDTO.builder().price(new BigDecimal("99.99")).build());
+
+            assertThat(cacheManager.getCache(CacheConfig.BEER_CACHE).get(beerId)).isNull();
+            assertThat(beerService.getBeerById(beerId).orElseThrow().getPrice()).isEqualByComparingTo("99.99");
+        } finally {
+            beerService.patchBeerById(beerId, BeerDTO.builder().price(price).build());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.mappers.BeerMapper;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// MATCH ... AGAINST radi samo na MySQL-u, pa ovdje provjeravamo samo kako servis bira i poziva FULLTEXT upite
+@ExtendWith(MockitoExtension.class)
+class BeerServiceJPAFullTextTest {
+
+    @Mock
+    BeerRepository beerRepository;
+
+    @Mock
+    BeerMapper beerMapper;
+
+    @Mock
+    BeerCountCache beerCountCache;
+
+    @Mock
+    BeerNameIndex beerNameIndex;
+
+    @InjectMocks
+    BeerServiceJPA beerService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(beerService, "searchMode", BeerSearchMode.FULLTEXT);
+    }
+
+    @Test
+    void testToFullTextQueryStripsBooleanOperators() {
+        assertThat(beerService.toFullTextQuery("+Galaxy -\"Cat*\"")).isEqualTo("\"Galaxy   Cat\"");
+    }
+
+    @Test
+    void testFullTextQueryUsedForBeerName() {
+        given(beerRepository.findSliceByBeerNameFullText(any(), any(), any())).willReturn(new SliceImpl<>(List.of()));
+
+        beerService.listBeersSlice("Galaxy", null, false, 2, 25);
+
+        // native upit ima svoj "order by", pa dobiva samo page/size
+        verify(beerRepository).findSliceByBeerNameFullText(eq("\"Galaxy\""), eq("%Galaxy%"), eq(PageRequest.of(1, 25)));
+        verify(beerRepository, never()).findBeerProjectionsWithoutInventory(any(), any(), any());
+    }
+
+    @Test
+    void testFullTextQueryWithBeerStyle() {
+        given(beerRepository.findSliceByBeerNameFullTextAndBeerStyle(any(), any(), any(Integer.class), any()))
+                .willReturn(new SliceImpl<>(List.of()));
+
+        beerService.listBeersSlice("Galaxy", BeerStyle.IPA, false, 1, 25);
+
+        verify(beerRepository).findSliceByBeerNameFullTextAndBeerStyle(eq("\"Galaxy\""), eq("%Galaxy%"),
+                eq(BeerStyle.IPA.ordinal()), eq(PageRequest.of(0, 25)));
+    }
+
+    @Test
+    void testShortQueryFallsBackToLike() {
+        given(beerRepository.findBeerProjectionsWithoutInventory(any(), any(), any())).willReturn(new SliceImpl<>(List.of()));
+
+        beerService.listBeersSlice("a", null, false, 1, 25);
+
+        verify(beerRepository).findBeerProjectionsWithoutInventory(eq("%a%"), isNull(), any());
+        verify(beerRepository, never()).findSliceByBeerNameFullText(any(), any(), any());
+    }
+}
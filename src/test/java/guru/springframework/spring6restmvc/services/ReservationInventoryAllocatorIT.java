@@ -0,0 +1,165 @@
+package guru.springframework.spring6restmvc.services;
+
+import guru.springframework.spring6restmvc.entities.Beer;
+import guru.springframework.spring6restmvc.entities.BeerOrderLine;
+import guru.springframework.spring6restmvc.model.BeerDTO;
+import guru.springframework.spring6restmvc.model.BeerOrderCreateDTO;
+import guru.springframework.spring6restmvc.model.BeerOrderDTO;
+import guru.springframework.spring6restmvc.model.BeerOrderLineCreateDTO;
+import guru.springframework.spring6restmvc.model.BeerStyle;
+import guru.springframework.spring6restmvc.repositories.BeerOrderLineRepository;
+import guru.springframework.spring6restmvc.repositories.BeerOrderRepository;
+import guru.springframework.spring6restmvc.repositories.BeerRepository;
+import guru.springframework.spring6restmvc.repositories.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// periodični flush praktički isključen, testovi ga pozivaju sami
+@SpringBootTest(properties = {"app.inventory.allocator=reservation", "app.inventory.reservation.flush-interval=PT1H"})
+class ReservationInventoryAllocatorIT {
+
+    @Autowired
+    ReservationInventoryAllocator reservationInventoryAllocator;
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderLineRepository beerOrderLineRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    List<UUID> savedBeerIds = new ArrayList<>();
+
+    // narudžbe, stavke i piva iz testa su commitani, pa ih brišemo - inače ostaju ostalim IT-ovima
+    // (npr. customerRepository.deleteAll() pukne na FK beer_order.customer_id, a piva kvare brojeve u listama piva)
+    @AfterEach
+    void tearDown() {
+        List<BeerOrderLine> lines = beerOrderLineRepository.findAll().stream()
+                .filter(line -> savedBeerIds.contains(line.getBeer().getId()))
+                .toList();
+
+        List<UUID> lineIds = lines.stream().map(BeerOrderLine::getId).toList();
+
+        Set<UUID> orderIds = lines.stream()
+                .map(line -> line.getBeerOrder().getId())
+                .collect(Collectors.toSet());
+
+        beerOrderLineRepository.deleteAllByIdInBatch(lineIds);
+        beerOrderRepository.deleteAllByIdInBatch(orderIds);
+        beerRepository.deleteAllById(savedBeerIds);
+    }
+
+    @Test
+    void testConcurrentReservationsFlushedToBeer() throws Exception {
+        Beer beer = saveBeer(10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<BeerOrderDTO>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            futures.add(executor.submit(() -> beerOrderService.createOrder(order(beer.getId(), 1))));
+        }
+
+        int allocated = 0;
+        for (Future<BeerOrderDTO> future : futures) {
+            allocated += future.get().getBeerOrderLines().get(0).getQuantityAllocated();
+        }
+        executor.shutdown();
+
+        assertThat(allocated).isEqualTo(10);
+
+        // do flush-a je beer red netaknut
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(10);
+
+        reservationInventoryAllocator.flush();
+
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isZero();
+        assertThat(beerOrderLineRepository.findUnflushedAllocations(PageRequest.of(0, 1000)))
+                .noneMatch(allocation -> allocation.beerId().equals(beer.getId()));
+    }
+
+    @Test
+    void testAvailableInventoryIncludesUnflushedReservations() {
+        Beer beer = saveBeer(5);
+
+        beerOrderService.createOrder(order(beer.getId(), 3));
+
+        // stanje kakvo bi recovery zatekao nakon pada prije flush-a: quantity_on_hand 5, neskinuta alokacija 3
+        assertThat(beerOrderLineRepository.findAvailableInventory(beer.getId())).isEqualTo(2L);
+
+        reservationInventoryAllocator.flush();
+
+        assertThat(beerOrderLineRepository.findAvailableInventory(beer.getId())).isEqualTo(2L);
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(2);
+    }
+
+    @Test
+    void testPatchedInventoryReloaded() {
+        Beer beer = saveBeer(2);
+
+        beerOrderService.createOrder(order(beer.getId(), 2));
+
+        // zaliha u memoriji je sad 0; nakon PATCH-a mora se učitati nova: 10 minus neskinutih 2
+        beerService.patchBeerById(beer.getId(), BeerDTO.builder().quantityOnHand(10).build());
+
+        BeerOrderDTO allocatedOrder = beerOrderService.createOrder(order(beer.getId(), 5));
+        BeerOrderDTO rejectedOrder = beerOrderService.createOrder(order(beer.getId(), 5));
+
+        assertThat(allocatedOrder.getBeerOrderLines().get(0).getQuantityAllocated()).isEqualTo(5);
+        assertThat(rejectedOrder.getBeerOrderLines().get(0).getQuantityAllocated()).isZero();
+
+        reservationInventoryAllocator.flush();
+
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(3);
+    }
+
+    private BeerOrderCreateDTO order(UUID beerId, int quantity) {
+        return BeerOrderCreateDTO.builder()
+                .customerId(customerRepository.findAll().get(0).getId())
+                .beerOrderLines(List.of(BeerOrderLineCreateDTO.builder()
+                        .beerId(beerId)
+                        .orderQuantity(quantity)
+                        .build()))
+                .build();
+    }
+
+    private Beer saveBeer(int quantityOnHand) {
+        Beer beer = beerRepository.save(Beer.builder()
+                .beerName("Reservation IT " + quantityOnHand)
+                .beerStyle(BeerStyle.LAGER)
+                .upc("456456")
+                .price(new BigDecimal("4.99"))
+                .quantityOnHand(quantityOnHand)
+                .build());
+
+        savedBeerIds.add(beer.getId());
+
+        return beer;
+    }
+}
@@ -0,0 +1,76 @@
+package guru.springframework.spring6restmvc.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedInventoryTest {
+
+    @Test
+    void testReserveAcrossStripes() {
+        StripedInventory inventory = new StripedInventory(10, 4);
+
+        // na svakom stripe-u je 2 ili 3, pa 7 mora ići sporim putem preko svih stripe-ova
+        assertThat(inventory.reserve(7)).isTrue();
+        assertThat(inventory.available()).isEqualTo(3);
+
+        assertThat(inventory.reserve(4)).isFalse();
+        assertThat(inventory.available()).isEqualTo(3);
+
+        assertThat(inventory.reserve(3)).isTrue();
+        assertThat(inventory.available()).isZero();
+    }
+
+    @Test
+    void testRelease() {
+        StripedInventory inventory = new StripedInventory(5, 2);
+
+        assertThat(inventory.reserve(5)).isTrue();
+        inventory.release(5);
+
+        assertThat(inventory.available()).isEqualTo(5);
+        assertThat(inventory.reserve(5)).isTrue();
+    }
+
+    @Test
+    void testConcurrentReservationsDoNotOversell() throws InterruptedException {
+        StripedInventory inventory = new StripedInventory(1000, 8);
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < 16; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                for (int order = 0; order < 200; order++) {
+                    if (inventory.reserve(3)) {
+                        reserved.addAndGet(3);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // 16 * 200 * 3 je puno više od zalihe: sve osim ostatka manjeg od jedne narudžbe mora biti rezervirano
+        assertThat(reserved.get() + inventory.available()).isEqualTo(1000);
+        assertThat(inventory.available()).isLessThan(3);
+    }
+}